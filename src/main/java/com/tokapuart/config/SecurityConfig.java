@@ -42,6 +42,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
                         .requestMatchers("/api/artworks/**").permitAll()
+                        .requestMatchers("/api/search/**").permitAll()
                         .requestMatchers("/uploads/**").permitAll()
                         // Todas las demás rutas requieren autenticación
                         .anyRequest().authenticated()
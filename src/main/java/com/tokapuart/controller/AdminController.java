@@ -0,0 +1,94 @@
+package com.tokapuart.controller;
+
+import com.tokapuart.dto.ApiResponse;
+import com.tokapuart.dto.CounterReconciliationReport;
+import com.tokapuart.dto.UserStatsRebuildReport;
+import com.tokapuart.service.CounterReconciliationService;
+import com.tokapuart.service.UserStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Operaciones de mantenimiento. No hay roles de usuario, así que se protegen con el
+ * token de admin.token (variable ADMIN_TOKEN); si no está configurado, quedan desactivadas.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final CounterReconciliationService counterReconciliationService;
+    private final UserStatsService userStatsService;
+
+    @Value("${admin.token:}")
+    private String adminToken;
+
+    @PostMapping("/counters/reconcile")
+    public ResponseEntity<ApiResponse<CounterReconciliationReport>> reconcileCounters(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("No autorizado"));
+        }
+        try {
+            CounterReconciliationReport report = counterReconciliationService.reconcile();
+            return ResponseEntity.ok(ApiResponse.success("Contadores reconciliados", report));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/counters/reconcile/last")
+    public ResponseEntity<ApiResponse<CounterReconciliationReport>> getLastReconciliation(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("No autorizado"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Última reconciliación",
+                counterReconciliationService.getLastReport()));
+    }
+
+    @PostMapping("/user-stats/rebuild")
+    public ResponseEntity<ApiResponse<UserStatsRebuildReport>> rebuildUserStats(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("No autorizado"));
+        }
+        try {
+            UserStatsRebuildReport report = userStatsService.rebuild();
+            return ResponseEntity.ok(ApiResponse.success("Estadísticas de usuarios recalculadas", report));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/user-stats/rebuild/last")
+    public ResponseEntity<ApiResponse<UserStatsRebuildReport>> getLastUserStatsRebuild(
+            @RequestHeader(value = "X-Admin-Token", required = false) String token) {
+        if (!isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("No autorizado"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("Último recálculo de estadísticas de usuarios",
+                userStatsService.getLastReport()));
+    }
+
+    private boolean isAdmin(String token) {
+        if (adminToken == null || adminToken.isBlank() || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                adminToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+}
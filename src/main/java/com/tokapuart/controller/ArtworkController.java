@@ -1,8 +1,13 @@
 package com.tokapuart.controller;
 
 import com.tokapuart.dto.ApiResponse;
+import com.tokapuart.dto.ArtistStatsResponse;
+import com.tokapuart.dto.ArtworkClusterResponse;
+import com.tokapuart.dto.ArtworkQueryResponse;
 import com.tokapuart.dto.ArtworkRequest;
 import com.tokapuart.dto.ArtworkResponse;
+import com.tokapuart.dto.CursorPage;
+import com.tokapuart.dto.ReactionSummaryResponse;
 import com.tokapuart.model.Artwork;
 import com.tokapuart.model.ArtworkPhoto;
 import com.tokapuart.model.User;
@@ -11,6 +16,8 @@ import com.tokapuart.repository.ArtworkRepository;
 import com.tokapuart.repository.UserRepository;
 import com.tokapuart.service.ArtworkService;
 import com.tokapuart.service.FileStorageService;
+import com.tokapuart.service.ReactionService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -32,13 +39,19 @@ public class ArtworkController {
     private final UserRepository userRepository;
     private final ArtworkRepository artworkRepository;
     private final ArtworkPhotoRepository artworkPhotoRepository;
+    private final ReactionService reactionService;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ArtworkResponse>>> getAllArtworks(Authentication authentication) {
+    public ResponseEntity<ApiResponse<CursorPage<ArtworkResponse>>> getAllArtworks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
         try {
             Long currentUserId = getCurrentUserId(authentication);
-            List<ArtworkResponse> artworks = artworkService.getAllArtworks(currentUserId);
+            CursorPage<ArtworkResponse> artworks = artworkService.getAllArtworks(cursor, size, currentUserId);
             return ResponseEntity.ok(ApiResponse.success("Obras obtenidas exitosamente", artworks));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error al obtener obras: " + e.getMessage()));
@@ -48,10 +61,11 @@ public class ArtworkController {
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ArtworkResponse>> getArtworkById(
             @PathVariable Long id,
-            Authentication authentication) {
+            Authentication authentication,
+            HttpServletRequest request) {
         try {
             Long currentUserId = getCurrentUserId(authentication);
-            ArtworkResponse artwork = artworkService.getArtworkById(id, currentUserId);
+            ArtworkResponse artwork = artworkService.getArtworkById(id, currentUserId, clientFingerprint(request));
             return ResponseEntity.ok(ApiResponse.success("Obra obtenida exitosamente", artwork));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -119,27 +133,91 @@ public class ArtworkController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<ArtworkResponse>>> searchArtworks(
+    public ResponseEntity<ApiResponse<CursorPage<ArtworkResponse>>> searchArtworks(
             @RequestParam String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             Authentication authentication) {
         try {
             Long currentUserId = getCurrentUserId(authentication);
-            List<ArtworkResponse> artworks = artworkService.searchArtworks(query, currentUserId);
+            CursorPage<ArtworkResponse> artworks = artworkService.searchArtworks(query, cursor, size, currentUserId);
             return ResponseEntity.ok(ApiResponse.success("Búsqueda completada", artworks));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/query")
+    public ResponseEntity<ApiResponse<ArtworkQueryResponse>> queryArtworks(
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) Artwork.ArtworkType type,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String technique,
+            @RequestParam(required = false) String bbox,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        try {
+            Long currentUserId = getCurrentUserId(authentication);
+            ArtworkQueryResponse result = artworkService.queryArtworks(
+                    text, type, city, technique, bbox, yearFrom, yearTo, cursor, size, currentUserId);
+            return ResponseEntity.ok(ApiResponse.success("Consulta completada", result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<ArtworkResponse>>> getTrending(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication) {
+        try {
+            Long currentUserId = getCurrentUserId(authentication);
+            List<ArtworkResponse> artworks = artworkService.getTrending(city, limit, currentUserId);
+            return ResponseEntity.ok(ApiResponse.success("Obras en tendencia obtenidas", artworks));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error(e.getMessage()));
         }
     }
 
+    @GetMapping("/reactions/summary")
+    public ResponseEntity<ApiResponse<List<ReactionSummaryResponse>>> getReactionSummaries(
+            @RequestParam List<Long> ids,
+            Authentication authentication) {
+        try {
+            Long currentUserId = getCurrentUserId(authentication);
+            List<ReactionSummaryResponse> summaries = reactionService.getSummaries(ids, currentUserId);
+            return ResponseEntity.ok(ApiResponse.success("Resumen de reacciones obtenido", summaries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener reacciones: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/filter")
-    public ResponseEntity<ApiResponse<List<ArtworkResponse>>> filterByType(
+    public ResponseEntity<ApiResponse<CursorPage<ArtworkResponse>>> filterByType(
             @RequestParam Artwork.ArtworkType type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             Authentication authentication) {
         try {
             Long currentUserId = getCurrentUserId(authentication);
-            List<ArtworkResponse> artworks = artworkService.filterByType(type, currentUserId);
+            CursorPage<ArtworkResponse> artworks = artworkService.filterByType(type, cursor, size, currentUserId);
             return ResponseEntity.ok(ApiResponse.success("Obras filtradas exitosamente", artworks));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error(e.getMessage()));
@@ -151,11 +229,12 @@ public class ArtworkController {
             @RequestParam BigDecimal latitude,
             @RequestParam BigDecimal longitude,
             @RequestParam(defaultValue = "5.0") Double radiusKm,
+            @RequestParam(required = false) Integer limit,
             Authentication authentication) {
         try {
             Long currentUserId = getCurrentUserId(authentication);
             List<ArtworkResponse> artworks = artworkService.getNearbyArtworks(
-                    latitude, longitude, radiusKm, currentUserId);
+                    latitude, longitude, radiusKm, limit, currentUserId);
             return ResponseEntity.ok(ApiResponse.success("Obras cercanas obtenidas", artworks));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -163,6 +242,39 @@ public class ArtworkController {
         }
     }
 
+    @GetMapping("/nearest")
+    public ResponseEntity<ApiResponse<List<ArtworkResponse>>> getNearestArtworks(
+            @RequestParam BigDecimal latitude,
+            @RequestParam BigDecimal longitude,
+            @RequestParam(defaultValue = "10") Integer k,
+            @RequestParam(defaultValue = "50.0") Double maxRadiusKm,
+            Authentication authentication) {
+        try {
+            Long currentUserId = getCurrentUserId(authentication);
+            List<ArtworkResponse> artworks = artworkService.getNearestArtworks(
+                    latitude, longitude, k, maxRadiusKm, currentUserId);
+            return ResponseEntity.ok(ApiResponse.success("Obras más cercanas obtenidas", artworks));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/clusters")
+    public ResponseEntity<ApiResponse<List<ArtworkClusterResponse>>> getClusters(
+            @RequestParam String bbox,
+            @RequestParam Integer zoom) {
+        try {
+            List<ArtworkClusterResponse> clusters = artworkService.getClusters(bbox, zoom);
+            return ResponseEntity.ok(ApiResponse.success("Clusters obtenidos", clusters));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PostMapping("/{id}/photos")
     public ResponseEntity<ApiResponse<String>> addPhoto(
             @PathVariable Long id,
@@ -201,20 +313,44 @@ public class ArtworkController {
         }
     }
 
+    @GetMapping("/user/{userId}/stats")
+    public ResponseEntity<ApiResponse<ArtistStatsResponse>> getArtistStats(@PathVariable Long userId) {
+        try {
+            ArtistStatsResponse stats = artworkService.getArtistStats(userId);
+            return ResponseEntity.ok(ApiResponse.success("Estadísticas del artista obtenidas", stats));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponse<List<ArtworkResponse>>> getArtworksByUser(
+    public ResponseEntity<ApiResponse<CursorPage<ArtworkResponse>>> getArtworksByUser(
             @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             Authentication authentication) {
         try {
             Long currentUserId = getCurrentUserId(authentication);
-            List<ArtworkResponse> artworks = artworkService.getArtworksByUserId(userId, currentUserId);
+            CursorPage<ArtworkResponse> artworks = artworkService.getArtworksByUserId(userId, cursor, size, currentUserId);
             return ResponseEntity.ok(ApiResponse.success("Obras del usuario obtenidas", artworks));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error(e.getMessage()));
         }
     }
 
+    /**
+     * Huella de un visitante anónimo para contar visitantes distintos: solo la IP de origen, que
+     * el cliente no puede elegir como las cabeceras. Detrás del proxy la resuelve Tomcat con
+     * server.forward-headers-strategy. ArtworkUniqueViewers solo guarda su hash.
+     */
+    private String clientFingerprint(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
     private Long getCurrentUserId(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return null;
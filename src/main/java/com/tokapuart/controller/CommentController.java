@@ -1,6 +1,7 @@
 package com.tokapuart.controller;
 
 import com.tokapuart.dto.ApiResponse;
+import com.tokapuart.dto.CommentPage;
 import com.tokapuart.dto.CommentRequest;
 import com.tokapuart.dto.CommentResponse;
 import com.tokapuart.model.User;
@@ -13,8 +14,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/artworks/{artworkId}/comments")
 @RequiredArgsConstructor
@@ -24,12 +23,21 @@ public class CommentController {
     private final UserRepository userRepository;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CommentResponse>>> getComments(@PathVariable Long artworkId) {
+    public ResponseEntity<ApiResponse<CommentPage>> getComments(
+            @PathVariable Long artworkId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<CommentResponse> comments = commentService.getCommentsByArtworkId(artworkId);
+            CommentPage comments = commentService.getCommentsByArtworkId(artworkId, cursor, since, size);
             return ResponseEntity.ok(ApiResponse.success("Comentarios obtenidos", comments));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            HttpStatus status = "Obra no encontrada".equals(e.getMessage())
+                    ? HttpStatus.NOT_FOUND
+                    : HttpStatus.INTERNAL_SERVER_ERROR;
+            return ResponseEntity.status(status)
                     .body(ApiResponse.error(e.getMessage()));
         }
     }
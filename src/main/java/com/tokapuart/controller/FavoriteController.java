@@ -2,6 +2,8 @@ package com.tokapuart.controller;
 
 import com.tokapuart.dto.ApiResponse;
 import com.tokapuart.dto.ArtworkResponse;
+import com.tokapuart.dto.CursorPage;
+import com.tokapuart.dto.FavoriteStateResponse;
 import com.tokapuart.model.User;
 import com.tokapuart.repository.UserRepository;
 import com.tokapuart.service.FavoriteService;
@@ -11,8 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/favorites")
 @RequiredArgsConstructor
@@ -22,7 +22,10 @@ public class FavoriteController {
     private final UserRepository userRepository;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ArtworkResponse>>> getFavorites(Authentication authentication) {
+    public ResponseEntity<ApiResponse<CursorPage<ArtworkResponse>>> getFavorites(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
         try {
             Long userId = getCurrentUserId(authentication);
             if (userId == null) {
@@ -30,8 +33,10 @@ public class FavoriteController {
                         .body(ApiResponse.error("Debes iniciar sesión"));
             }
 
-            List<ArtworkResponse> favorites = favoriteService.getFavoritesByUserId(userId);
+            CursorPage<ArtworkResponse> favorites = favoriteService.getFavoritesByUserId(userId, cursor, size);
             return ResponseEntity.ok(ApiResponse.success("Favoritos obtenidos", favorites));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error(e.getMessage()));
@@ -57,23 +62,18 @@ public class FavoriteController {
         }
     }
 
-    @DeleteMapping("/{artworkId}")
-    public ResponseEntity<ApiResponse<Void>> removeFavorite(
+    @PutMapping("/{artworkId}")
+    public ResponseEntity<ApiResponse<FavoriteStateResponse>> putFavorite(
             @PathVariable Long artworkId,
             Authentication authentication) {
-        try {
-            Long userId = getCurrentUserId(authentication);
-            if (userId == null) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(ApiResponse.error("Debes iniciar sesión"));
-            }
+        return setFavorite(artworkId, true, "En favoritos", authentication);
+    }
 
-            favoriteService.removeFavorite(artworkId, userId);
-            return ResponseEntity.ok(ApiResponse.success("Removido de favoritos", null));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error(e.getMessage()));
-        }
+    @DeleteMapping("/{artworkId}")
+    public ResponseEntity<ApiResponse<FavoriteStateResponse>> removeFavorite(
+            @PathVariable Long artworkId,
+            Authentication authentication) {
+        return setFavorite(artworkId, false, "Removido de favoritos", authentication);
     }
 
     @GetMapping("/{artworkId}/check")
@@ -94,6 +94,29 @@ public class FavoriteController {
         }
     }
 
+    /**
+     * PUT y DELETE son idempotentes: repetirlos devuelve el mismo estado en vez de un error.
+     */
+    private ResponseEntity<ApiResponse<FavoriteStateResponse>> setFavorite(
+            Long artworkId, boolean favorited, String message, Authentication authentication) {
+        try {
+            Long userId = getCurrentUserId(authentication);
+            if (userId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(ApiResponse.error("Debes iniciar sesión"));
+            }
+
+            FavoriteStateResponse state = favoriteService.setFavorite(artworkId, userId, favorited);
+            return ResponseEntity.ok(ApiResponse.success(message, state));
+        } catch (Exception e) {
+            HttpStatus status = "Obra no encontrada".equals(e.getMessage())
+                    ? HttpStatus.NOT_FOUND
+                    : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     private Long getCurrentUserId(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return null;
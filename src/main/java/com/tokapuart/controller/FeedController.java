@@ -0,0 +1,54 @@
+package com.tokapuart.controller;
+
+import com.tokapuart.dto.ApiResponse;
+import com.tokapuart.dto.ArtworkResponse;
+import com.tokapuart.dto.CursorPage;
+import com.tokapuart.model.User;
+import com.tokapuart.repository.UserRepository;
+import com.tokapuart.service.FeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/feed")
+@RequiredArgsConstructor
+public class FeedController {
+
+    private final FeedService feedService;
+    private final UserRepository userRepository;
+
+    @GetMapping("/following")
+    public ResponseEntity<ApiResponse<CursorPage<ArtworkResponse>>> getFollowingFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        try {
+            Long userId = getCurrentUserId(authentication);
+            if (userId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(ApiResponse.error("Debes iniciar sesión"));
+            }
+
+            CursorPage<ArtworkResponse> feed = feedService.getFollowingFeed(userId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success("Feed obtenido", feed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private Long getCurrentUserId(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        String email = authentication.getName();
+        return userRepository.findByEmail(email)
+                .map(User::getId)
+                .orElse(null);
+    }
+}
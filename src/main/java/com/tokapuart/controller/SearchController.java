@@ -0,0 +1,38 @@
+package com.tokapuart.controller;
+
+import com.tokapuart.dto.ApiResponse;
+import com.tokapuart.dto.SuggestionResponse;
+import com.tokapuart.service.SearchSuggestionIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final SearchSuggestionIndex searchSuggestionIndex;
+
+    /**
+     * Sugerencias para el cuadro de búsqueda; se resuelven en memoria, sin consultar la base de datos.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<SuggestionResponse>>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "8") Integer limit) {
+        try {
+            List<SuggestionResponse> suggestions = searchSuggestionIndex.suggest(
+                    prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+            return ResponseEntity.ok(ApiResponse.success("Sugerencias obtenidas", suggestions));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error al obtener sugerencias: " + e.getMessage()));
+        }
+    }
+}
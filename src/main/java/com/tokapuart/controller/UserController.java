@@ -1,9 +1,13 @@
 package com.tokapuart.controller;
 
 import com.tokapuart.dto.ApiResponse;
+import com.tokapuart.dto.CursorPage;
+import com.tokapuart.dto.FollowSuggestionResponse;
+import com.tokapuart.dto.FollowUserResponse;
 import com.tokapuart.dto.UserProfileResponse;
 import com.tokapuart.model.User;
 import com.tokapuart.repository.UserRepository;
+import com.tokapuart.service.FollowSuggestionService;
 import com.tokapuart.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -12,12 +16,15 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
 
     private final UserService userService;
+    private final FollowSuggestionService followSuggestionService;
     private final UserRepository userRepository;
 
     @GetMapping("/profile")
@@ -37,6 +44,25 @@ public class UserController {
         }
     }
 
+    @GetMapping("/suggestions")
+    public ResponseEntity<ApiResponse<List<FollowSuggestionResponse>>> getSuggestions(
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        try {
+            Long userId = getCurrentUserId(authentication);
+            if (userId == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(ApiResponse.error("Debes iniciar sesión"));
+            }
+
+            List<FollowSuggestionResponse> suggestions = followSuggestionService.getSuggestions(userId, size);
+            return ResponseEntity.ok(ApiResponse.success("Sugerencias obtenidas", suggestions));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity<ApiResponse<UserProfileResponse>> getUserProfile(
             @PathVariable Long userId,
@@ -108,6 +134,42 @@ public class UserController {
         }
     }
 
+    @GetMapping("/{userId}/followers")
+    public ResponseEntity<ApiResponse<CursorPage<FollowUserResponse>>> getFollowers(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        try {
+            Long currentUserId = getCurrentUserId(authentication);
+            CursorPage<FollowUserResponse> followers = userService.getFollowers(userId, cursor, size, currentUserId);
+            return ResponseEntity.ok(ApiResponse.success("Seguidores obtenidos", followers));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{userId}/following")
+    public ResponseEntity<ApiResponse<CursorPage<FollowUserResponse>>> getFollowing(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            Authentication authentication) {
+        try {
+            Long currentUserId = getCurrentUserId(authentication);
+            CursorPage<FollowUserResponse> following = userService.getFollowing(userId, cursor, size, currentUserId);
+            return ResponseEntity.ok(ApiResponse.success("Seguidos obtenidos", following));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PostMapping("/profile/photo")
     public ResponseEntity<ApiResponse<String>> uploadProfilePhoto(
             @RequestParam("photo") MultipartFile photo,
@@ -0,0 +1,35 @@
+package com.tokapuart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArtistStatsResponse {
+
+    private Long userId;
+    private Integer artworksCount;
+    private Long totalViews;
+    private Long uniqueViewers; // visitantes distintos del conjunto de obras, no la suma por obra
+
+    @Builder.Default
+    private List<ArtworkStats> artworks = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ArtworkStats {
+        private Long artworkId;
+        private String title;
+        private Integer viewsCount;
+        private Integer uniqueViewers;
+    }
+}
@@ -0,0 +1,22 @@
+package com.tokapuart.dto;
+
+import com.tokapuart.model.Artwork;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArtworkClusterResponse {
+
+    // Centroide de las obras del cluster
+    private Double latitude;
+    private Double longitude;
+
+    private Integer count;
+    private Artwork.ArtworkType dominantType;
+    private Long sampleArtworkId;
+}
@@ -0,0 +1,47 @@
+package com.tokapuart.dto;
+
+import com.tokapuart.model.Artwork;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArtworkQueryResponse {
+
+    @Builder.Default
+    private List<ArtworkResponse> items = new ArrayList<>();
+
+    private String nextCursor; // null cuando no hay más resultados
+    private Boolean hasMore;
+    private Integer total;
+
+    // Conteos sobre todo el resultado, no solo sobre la página
+    private Facets facets;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Facets {
+        private Map<Artwork.ArtworkType, Integer> artworkType;
+        private List<FacetCount> city;
+        private List<FacetCount> technique;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCount {
+        private String value;
+        private Integer count;
+    }
+}
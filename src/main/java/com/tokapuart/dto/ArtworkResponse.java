@@ -33,9 +33,11 @@ public class ArtworkResponse {
     private BigDecimal longitude;
     private String address;
     private String city;
+    private Double distanceMeters; // Solo en búsquedas por proximidad
 
     // Estadísticas
     private Integer viewsCount;
+    private Integer uniqueViewers;
     private Integer favoritesCount;
     private Integer commentsCount;
     private Integer validationScore;
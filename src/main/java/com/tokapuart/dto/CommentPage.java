@@ -0,0 +1,24 @@
+package com.tokapuart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentPage {
+
+    @Builder.Default
+    private List<CommentResponse> items = new ArrayList<>();
+
+    private String nextCursor; // null cuando no hay más resultados
+    private Boolean hasMore;
+    private Long totalCount;
+    private String newestCursor; // para pedir solo los comentarios nuevos con ?since=
+}
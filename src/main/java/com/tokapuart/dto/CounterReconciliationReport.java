@@ -0,0 +1,33 @@
+package com.tokapuart.dto;
+
+import com.tokapuart.model.ArtworkCounterShard;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CounterReconciliationReport {
+
+    private LocalDateTime startedAt;
+    private Long durationMs;
+    private Integer artworksChecked;
+    private Map<ArtworkCounterShard.CounterType, CounterDrift> counters;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CounterDrift {
+        private Integer drifted;       // obras cuyo contador no coincidía (incluye NULL)
+        private Long absoluteDrift;    // suma de |esperado - guardado|
+        private Integer corrected;
+        private Integer skipped;       // la fila cambió durante la reconciliación; se revisa en la siguiente
+    }
+}
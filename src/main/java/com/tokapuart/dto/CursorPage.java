@@ -0,0 +1,22 @@
+package com.tokapuart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    @Builder.Default
+    private List<T> items = new ArrayList<>();
+
+    private String nextCursor; // null cuando no hay más resultados
+    private Boolean hasMore;
+}
@@ -0,0 +1,18 @@
+package com.tokapuart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteStateResponse {
+
+    private Long artworkId;
+    private Boolean isFavorited;
+    private Boolean changed; // false si la obra ya estaba en el estado pedido
+    private Long favoritesCount;
+}
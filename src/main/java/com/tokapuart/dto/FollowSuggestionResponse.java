@@ -0,0 +1,25 @@
+package com.tokapuart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowSuggestionResponse {
+
+    private Long id;
+    private String username;
+    private String fullName;
+    private String profilePhotoUrl;
+    private String city;
+    private Boolean isArtist;
+
+    // Cuántos de los usuarios que sigues le siguen
+    private Integer sharedFollows;
+    private Boolean sameCity;
+    private Boolean followsYou;
+}
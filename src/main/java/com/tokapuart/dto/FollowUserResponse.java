@@ -0,0 +1,23 @@
+package com.tokapuart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowUserResponse {
+
+    private Long id;
+    private String username;
+    private String fullName;
+    private String profilePhotoUrl;
+    private Boolean isArtist;
+
+    // Relación con el usuario que consulta (null si no hay sesión)
+    private Boolean isFollowing;
+    private Boolean followsYou;
+}
@@ -0,0 +1,21 @@
+package com.tokapuart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReactionStateResponse {
+
+    private Long artworkId;
+    private String userReaction;
+    private Boolean changed; // false si la obra ya estaba en el estado pedido
+    private Long likesCount;
+    private Long lovesCount;
+    private Long wowsCount;
+    private Long clapsCount;
+}
@@ -0,0 +1,21 @@
+package com.tokapuart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReactionSummaryResponse {
+
+    private Long artworkId;
+    private Long likesCount;
+    private Long lovesCount;
+    private Long wowsCount;
+    private Long clapsCount;
+    private Long totalCount;
+    private String userReaction;
+}
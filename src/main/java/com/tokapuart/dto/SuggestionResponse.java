@@ -0,0 +1,20 @@
+package com.tokapuart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+
+    private String text;
+    private SuggestionType type;
+
+    public enum SuggestionType {
+        TITLE, ARTIST, CITY, USER
+    }
+}
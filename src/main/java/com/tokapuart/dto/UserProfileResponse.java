@@ -32,4 +32,5 @@ public class UserProfileResponse {
 
     private LocalDateTime createdAt;
     private Boolean isFollowing; // Solo si se consulta desde otro usuario
+    private Boolean followsYou;  // Idem: el perfil sigue a quien consulta
 }
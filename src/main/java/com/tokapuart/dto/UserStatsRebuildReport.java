@@ -0,0 +1,23 @@
+package com.tokapuart.dto;
+
+import com.tokapuart.model.UserStats;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatsRebuildReport {
+
+    private LocalDateTime startedAt;
+    private Long durationMs;
+    private Integer usersChecked;
+    private Integer rowsCreated;   // usuarios sin fila en user_stats
+    private Map<UserStats.StatType, CounterReconciliationReport.CounterDrift> stats;
+}
@@ -0,0 +1,15 @@
+package com.tokapuart.dto;
+
+import com.tokapuart.model.User;
+
+/**
+ * Datos públicos de un usuario para mostrarlo como autor de una obra o de un comentario.
+ * Se lee con una proyección, sin cargar la entidad User con su contraseña y colecciones.
+ */
+public record UserSummary(Long id, String username, String fullName, String profilePhotoUrl, Boolean isArtist) {
+
+    public static UserSummary of(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getFullName(),
+                user.getProfilePhotoUrl(), user.getIsArtist());
+    }
+}
@@ -0,0 +1,57 @@
+package com.tokapuart.event;
+
+import com.tokapuart.model.Artwork;
+
+import java.time.LocalDateTime;
+
+/**
+ * Se publica desde ArtworkService al crear, editar o eliminar una obra.
+ * Lleva una copia inmutable de los campos que necesitan los índices en memoria,
+ * para que los listeners no dependan de una entidad desacoplada de su sesión.
+ */
+public record ArtworkChangedEvent(
+        ChangeType changeType,
+        Long artworkId,
+        Long userId,
+        String title,
+        String description,
+        String artistName,
+        String city,
+        String technique,
+        Artwork.ArtworkType artworkType,
+        Artwork.ArtworkStatus status,
+        Integer yearCreated,
+        double latitude,
+        double longitude,
+        LocalDateTime createdAt
+) {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static ArtworkChangedEvent of(ChangeType changeType, Artwork artwork) {
+        return new ArtworkChangedEvent(
+                changeType,
+                artwork.getId(),
+                artwork.getUser().getId(),
+                artwork.getTitle(),
+                artwork.getDescription(),
+                artwork.getArtistName(),
+                artwork.getCity(),
+                artwork.getTechnique(),
+                artwork.getArtworkType(),
+                artwork.getStatus(),
+                artwork.getYearCreated(),
+                artwork.getLatitude().doubleValue(),
+                artwork.getLongitude().doubleValue(),
+                artwork.getCreatedAt());
+    }
+
+    /**
+     * true si la obra debe aparecer en índices públicos (aprobada y no eliminada).
+     */
+    public boolean isVisible() {
+        return changeType != ChangeType.DELETED && status == Artwork.ArtworkStatus.APPROVED;
+    }
+}
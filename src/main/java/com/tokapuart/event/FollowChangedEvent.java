@@ -0,0 +1,7 @@
+package com.tokapuart.event;
+
+/**
+ * Se publica cuando un usuario empieza (following = true) o deja de seguir a otro.
+ */
+public record FollowChangedEvent(Long followerId, Long followingId, boolean following) {
+}
@@ -0,0 +1,37 @@
+package com.tokapuart.event;
+
+import com.tokapuart.model.ArtworkReaction;
+
+/**
+ * Se publica cuando alguien interactúa con una obra: al verla, al comentarla y, solo si el
+ * estado cambió de verdad, al marcar o desmarcar un favorito o al poner, cambiar o quitar
+ * una reacción. userId es null en las vistas anónimas.
+ */
+public record InteractionChangedEvent(
+        Long userId,
+        Long artworkId,
+        Kind kind,
+        boolean favorited,
+        ArtworkReaction.ReactionType reactionType // null si se quitó la reacción
+) {
+
+    public enum Kind {
+        VIEW, COMMENT, FAVORITE, REACTION
+    }
+
+    public static InteractionChangedEvent view(Long userId, Long artworkId) {
+        return new InteractionChangedEvent(userId, artworkId, Kind.VIEW, false, null);
+    }
+
+    public static InteractionChangedEvent comment(Long userId, Long artworkId) {
+        return new InteractionChangedEvent(userId, artworkId, Kind.COMMENT, false, null);
+    }
+
+    public static InteractionChangedEvent favorite(Long userId, Long artworkId, boolean favorited) {
+        return new InteractionChangedEvent(userId, artworkId, Kind.FAVORITE, favorited, null);
+    }
+
+    public static InteractionChangedEvent reaction(Long userId, Long artworkId, ArtworkReaction.ReactionType reactionType) {
+        return new InteractionChangedEvent(userId, artworkId, Kind.REACTION, false, reactionType);
+    }
+}
@@ -0,0 +1,7 @@
+package com.tokapuart.event;
+
+/**
+ * Se publica desde UserService cuando cambian los datos públicos de un usuario (perfil o foto).
+ */
+public record UserProfileChangedEvent(Long userId) {
+}
@@ -0,0 +1,7 @@
+package com.tokapuart.event;
+
+/**
+ * Se publica al crear una cuenta, ya sea con email o con Google.
+ */
+public record UserRegisteredEvent(Long userId, String username) {
+}
@@ -17,7 +17,11 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "artworks")
+@Table(name = "artworks", indexes = {
+    @Index(name = "idx_artworks_status_created", columnList = "status, created_at, id"),
+    @Index(name = "idx_artworks_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_artworks_type_status_created", columnList = "artwork_type, status, created_at, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -26,7 +30,10 @@ import java.util.Set;
 public class Artwork {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "artworks_id")
+    @TableGenerator(name = "artworks_id", table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.SEGMENT_COLUMN, valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "artworks", allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -69,6 +76,10 @@ public class Artwork {
     @Column(name = "views_count")
     private Integer viewsCount = 0;
 
+    // Estimación HyperLogLog de visitantes distintos (ver ArtworkUniqueViewers)
+    @Column(name = "unique_viewers")
+    private Integer uniqueViewers = 0;
+
     @Column(name = "favorites_count")
     private Integer favoritesCount = 0;
 
@@ -0,0 +1,86 @@
+package com.tokapuart.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Fragmento de un contador de obra. Con los contadores fragmentados activos, cada escritura
+ * suma su delta en un fragmento al azar en lugar de bloquear la fila de artworks; la
+ * compactación vuelca periódicamente los deltas a las columnas de Artwork.
+ * Sin clave foránea a artworks para que las escrituras no bloqueen la fila padre.
+ */
+@Entity
+@Table(name = "artwork_counter_shards", indexes = {
+    @Index(name = "idx_counter_shards_delta", columnList = "delta")
+})
+@IdClass(ArtworkCounterShard.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArtworkCounterShard {
+
+    @Id
+    @Column(name = "artwork_id")
+    private Long artworkId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "counter_type", length = 20)
+    private CounterType counterType;
+
+    @Id
+    @Column(name = "shard")
+    private Integer shard;
+
+    // Delta pendiente de compactar ("value" es palabra reservada en H2)
+    @Column(name = "delta", nullable = false)
+    @Builder.Default
+    private Long delta = 0L;
+
+    public enum CounterType {
+        VIEWS("views_count"),
+        LIKES("likes_count"),
+        LOVES("loves_count"),
+        WOWS("wows_count"),
+        CLAPS("claps_count"),
+        FAVORITES("favorites_count"),
+        COMMENTS("comments_count");
+
+        private final String column;
+
+        CounterType(String column) {
+            this.column = column;
+        }
+
+        // Columna desnormalizada de artworks
+        public String column() {
+            return column;
+        }
+
+        public static CounterType of(ArtworkReaction.ReactionType reactionType) {
+            return switch (reactionType) {
+                case LIKE -> LIKES;
+                case LOVE -> LOVES;
+                case WOW -> WOWS;
+                case CLAP -> CLAPS;
+            };
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long artworkId;
+        private CounterType counterType;
+        private Integer shard;
+    }
+}
@@ -13,6 +13,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "favorites", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"user_id", "artwork_id"})
+}, indexes = {
+    @Index(name = "idx_favorites_user_created", columnList = "user_id, created_at, id")
 })
 @Data
 @Builder
@@ -0,0 +1,19 @@
+package com.tokapuart.model;
+
+/**
+ * Generación de ids por tabla con optimizador pooled: cada entidad reserva bloques de
+ * ALLOCATION_SIZE ids en una fila de id_generators, así Hibernate conoce el id antes del
+ * INSERT y puede agruparlos en lotes JDBC (con IDENTITY cada fila es un viaje a la base
+ * de datos). Hibernate guarda en next_val el último valor entregado por la tabla; el
+ * siguiente bloque termina en next_val + 1 y empieza ALLOCATION_SIZE - 1 ids antes.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String SEGMENT_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGenerators() {
+    }
+}
@@ -0,0 +1,64 @@
+package com.tokapuart.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contadores desnormalizados de un usuario para el perfil. Se mantienen con incrementos
+ * relativos desde las escrituras (ver UserStatsService) y un recálculo periódico por tramos.
+ * Sin clave foránea a users para que los incrementos no bloqueen la fila del usuario.
+ */
+@Entity
+@Table(name = "user_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "artworks_count", nullable = false)
+    @Builder.Default
+    private Long artworksCount = 0L;
+
+    @Column(name = "favorites_count", nullable = false)
+    @Builder.Default
+    private Long favoritesCount = 0L;
+
+    @Column(name = "comments_count", nullable = false)
+    @Builder.Default
+    private Long commentsCount = 0L;
+
+    @Column(name = "followers_count", nullable = false)
+    @Builder.Default
+    private Long followersCount = 0L;
+
+    @Column(name = "following_count", nullable = false)
+    @Builder.Default
+    private Long followingCount = 0L;
+
+    public enum StatType {
+        ARTWORKS("artworks_count"),
+        FAVORITES("favorites_count"),
+        COMMENTS("comments_count"),
+        FOLLOWERS("followers_count"),
+        FOLLOWING("following_count");
+
+        private final String column;
+
+        StatType(String column) {
+            this.column = column;
+        }
+
+        // Columna de user_stats
+        public String column() {
+            return column;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.tokapuart.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Sketch HyperLogLog serializado (ver util.HyperLogLog) con los visitantes distintos de
+ * una obra o del conjunto de obras de un artista. Lo escribe ArtworkUniqueViewers en sus
+ * volcados por lotes; sin clave foránea, igual que artwork_counter_shards.
+ */
+@Entity
+@Table(name = "viewer_sketches")
+@IdClass(ViewerSketch.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ViewerSketch {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", length = 10)
+    private Scope scope;
+
+    // Id de la obra o del usuario artista según scope
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    // Como máximo 12 KB en forma densa más un byte de cabecera
+    @Column(name = "sketch", nullable = false, length = 12300)
+    private byte[] sketch;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Scope {
+        ARTWORK, ARTIST
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Scope scope;
+        private Long ownerId;
+    }
+}
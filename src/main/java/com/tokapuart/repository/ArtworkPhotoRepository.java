@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,5 +19,8 @@ public interface ArtworkPhotoRepository extends JpaRepository<ArtworkPhoto, Long
     @Query("SELECT p FROM ArtworkPhoto p WHERE p.artwork.id = :artworkId ORDER BY p.createdAt DESC")
     List<ArtworkPhoto> findByArtworkIdOrderByCreatedAtDesc(Long artworkId);
 
+    @Query("SELECT p FROM ArtworkPhoto p WHERE p.artwork.id IN :artworkIds ORDER BY p.orderIndex ASC")
+    List<ArtworkPhoto> findByArtworkIdIn(Collection<Long> artworkIds);
+
     Long countByArtworkId(Long artworkId);
 }
@@ -2,9 +2,12 @@ package com.tokapuart.repository;
 
 import com.tokapuart.model.ArtworkReaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,19 +15,45 @@ public interface ArtworkReactionRepository extends JpaRepository<ArtworkReaction
 
     Optional<ArtworkReaction> findByUserIdAndArtworkId(Long userId, Long artworkId);
 
+    // Filas [artworkId, reactionType] de todas las reacciones del usuario
+    @Query("SELECT r.artwork.id, r.reactionType FROM ArtworkReaction r WHERE r.user.id = :userId")
+    List<Object[]> findReactionsByUserId(Long userId);
+
     Boolean existsByUserIdAndArtworkId(Long userId, Long artworkId);
 
     void deleteByUserIdAndArtworkId(Long userId, Long artworkId);
 
-    @Query("SELECT COUNT(r) FROM ArtworkReaction r WHERE r.artwork.id = :artworkId AND r.reactionType = 'LIKE'")
-    Long countLikesByArtworkId(Long artworkId);
-
-    @Query("SELECT COUNT(r) FROM ArtworkReaction r WHERE r.artwork.id = :artworkId AND r.reactionType = 'LOVE'")
-    Long countLovesByArtworkId(Long artworkId);
-
-    @Query("SELECT COUNT(r) FROM ArtworkReaction r WHERE r.artwork.id = :artworkId AND r.reactionType = 'WOW'")
-    Long countWowsByArtworkId(Long artworkId);
-
-    @Query("SELECT COUNT(r) FROM ArtworkReaction r WHERE r.artwork.id = :artworkId AND r.reactionType = 'CLAP'")
-    Long countClapsByArtworkId(Long artworkId);
+    // Devuelve 0 si el usuario ya reaccionó (unique_user_artwork_reaction) o la obra no existe
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO artwork_reactions (artwork_id, user_id, reaction_type, created_at, updated_at) " +
+                   "VALUES (:artworkId, :userId, :reactionType, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+           nativeQuery = true)
+    int insertIgnore(Long artworkId, Long userId, String reactionType);
+
+    @Query(value = "SELECT reaction_type FROM artwork_reactions WHERE user_id = :userId AND artwork_id = :artworkId",
+           nativeQuery = true)
+    Optional<String> findReactionType(Long userId, Long artworkId);
+
+    @Query(value = "SELECT reaction_type FROM artwork_reactions WHERE user_id = :userId AND artwork_id = :artworkId FOR UPDATE",
+           nativeQuery = true)
+    Optional<String> lockReactionType(Long userId, Long artworkId);
+
+    // Solo si la reacción sigue siendo expectedType; 0 si otra petición la cambió
+    @Modifying
+    @Query(value = "UPDATE artwork_reactions SET reaction_type = :reactionType, updated_at = CURRENT_TIMESTAMP " +
+                   "WHERE user_id = :userId AND artwork_id = :artworkId AND reaction_type = :expectedType",
+           nativeQuery = true)
+    int updateReactionType(Long userId, Long artworkId, String expectedType, String reactionType);
+
+    // Solo si la reacción sigue siendo expectedType; 0 si otra petición la cambió
+    @Modifying
+    @Query(value = "DELETE FROM artwork_reactions WHERE user_id = :userId AND artwork_id = :artworkId " +
+                   "AND reaction_type = :expectedType",
+           nativeQuery = true)
+    int deleteReaction(Long userId, Long artworkId, String expectedType);
+
+    // Filas [artworkId, reactionType, count]; las combinaciones sin reacciones no aparecen
+    @Query("SELECT r.artwork.id, r.reactionType, COUNT(r) FROM ArtworkReaction r " +
+           "WHERE r.artwork.id IN :artworkIds GROUP BY r.artwork.id, r.reactionType")
+    List<Object[]> countByArtworkIdInGroupByType(Collection<Long> artworkIds);
 }
@@ -1,23 +1,30 @@
 package com.tokapuart.repository;
 
 import com.tokapuart.model.Artwork;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface ArtworkRepository extends JpaRepository<Artwork, Long> {
 
-    @Query("SELECT a FROM Artwork a JOIN FETCH a.user WHERE a.id = :id")
-    Optional<Artwork> findById(@Param("id") Long id);
+    // Keyset: filas estrictamente anteriores al cursor (createdAt, id) en orden descendente
+    String BEFORE_CURSOR = "(a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id))";
+    String CURSOR_ORDER = " ORDER BY a.createdAt DESC, a.id DESC";
 
-    @Query("SELECT a FROM Artwork a JOIN FETCH a.user WHERE a.user.id = :userId")
-    List<Artwork> findByUserId(@Param("userId") Long userId);
+    @Query("SELECT a FROM Artwork a WHERE a.user.id = :userId AND " + BEFORE_CURSOR + CURSOR_ORDER)
+    List<Artwork> findByUserIdPage(
+        @Param("userId") Long userId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
 
     List<Artwork> findByCity(String city);
 
@@ -25,27 +32,54 @@ public interface ArtworkRepository extends JpaRepository<Artwork, Long> {
 
     List<Artwork> findByStatus(Artwork.ArtworkStatus status);
 
-    @Query("SELECT a FROM Artwork a JOIN FETCH a.user WHERE a.status = 'APPROVED' ORDER BY a.createdAt DESC")
-    List<Artwork> findAllApproved();
-
-    @Query("SELECT a FROM Artwork a JOIN FETCH a.user WHERE " +
-           "LOWER(a.title) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(a.description) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(a.artistName) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Artwork> searchArtworks(@Param("query") String query);
-
-    // Búsqueda por proximidad (simple)
-    @Query("SELECT a FROM Artwork a JOIN FETCH a.user WHERE " +
-           "a.latitude BETWEEN :minLat AND :maxLat AND " +
-           "a.longitude BETWEEN :minLng AND :maxLng AND " +
-           "a.status = 'APPROVED'")
-    List<Artwork> findNearby(
-        @Param("minLat") BigDecimal minLat,
-        @Param("maxLat") BigDecimal maxLat,
-        @Param("minLng") BigDecimal minLng,
-        @Param("maxLng") BigDecimal maxLng
+    @Query("SELECT a FROM Artwork a WHERE a.status = 'APPROVED' AND " + BEFORE_CURSOR + CURSOR_ORDER)
+    List<Artwork> findApprovedPage(
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
     );
 
-    @Query("SELECT a FROM Artwork a JOIN FETCH a.user WHERE a.artworkType = :type AND a.status = 'APPROVED'")
-    List<Artwork> findByArtworkTypeAndApproved(@Param("type") Artwork.ArtworkType type);
+
+    // Autor solo por id: nombres y fotos salen de UserSummaryCache
+    List<Artwork> findAllByIdIn(Collection<Long> ids);
+
+    // Carga de los índices en memoria: [id, latitude, longitude, artworkType]
+    @Query("SELECT a.id, a.latitude, a.longitude, a.artworkType FROM Artwork a WHERE a.status = 'APPROVED'")
+    List<Object[]> findApprovedLocations();
+
+    // Autocompletado: [id, userId, title, artistName, city, popularidad]
+    @Query("SELECT a.id, a.user.id, a.title, a.artistName, a.city, " +
+           "COALESCE(a.favoritesCount, 0) + COALESCE(a.commentsCount, 0) + COALESCE(a.likesCount, 0) + " +
+           "COALESCE(a.lovesCount, 0) + COALESCE(a.wowsCount, 0) + COALESCE(a.clapsCount, 0) + " +
+           "COALESCE(a.viewsCount, 0) / 10 " +
+           "FROM Artwork a WHERE a.status = 'APPROVED'")
+    List<Object[]> findSuggestionSources();
+
+    // Estadísticas del artista: [id, title, viewsCount, uniqueViewers]
+    @Query("SELECT a.id, a.title, a.viewsCount, a.uniqueViewers FROM Artwork a WHERE a.user.id = :userId " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Object[]> findStatsByUserId(@Param("userId") Long userId);
+
+    // Carga del índice de tendencias: [id, city] de las obras aprobadas
+    @Query("SELECT a.id, a.city FROM Artwork a WHERE a.status = 'APPROVED'")
+    List<Object[]> findApprovedCities();
+
+    // Carga por tramos del índice de filtros: [id, status, artworkType, city, technique, yearCreated, latitude, longitude, createdAt]
+    @Query("SELECT a.id, a.status, a.artworkType, a.city, a.technique, a.yearCreated, a.latitude, a.longitude, a.createdAt " +
+           "FROM Artwork a WHERE a.id > :lastId ORDER BY a.id")
+    List<Object[]> findFilterDocumentsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // Carga por tramos del índice de búsqueda: [id, title, artistName, description]
+    @Query("SELECT a.id, a.title, a.artistName, a.description FROM Artwork a " +
+           "WHERE a.status = 'APPROVED' AND a.id > :lastId ORDER BY a.id")
+    List<Object[]> findSearchDocumentsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    @Query("SELECT a FROM Artwork a WHERE a.artworkType = :type AND a.status = 'APPROVED' AND " +
+           BEFORE_CURSOR + CURSOR_ORDER)
+    List<Artwork> findByArtworkTypeAndApprovedPage(
+        @Param("type") Artwork.ArtworkType type,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
 }
@@ -1,23 +1,51 @@
 package com.tokapuart.repository;
 
 import com.tokapuart.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.artwork.id = :artworkId ORDER BY c.createdAt DESC")
-    List<Comment> findByArtworkIdOrderByCreatedAtDesc(Long artworkId);
+    // Keyset: comentarios anteriores al cursor (createdAt, id), del más reciente al más antiguo
+    @Query("SELECT c FROM Comment c WHERE c.artwork.id = :artworkId AND " +
+           "(c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findByArtworkIdPage(
+        @Param("artworkId") Long artworkId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    // Comentarios posteriores al cursor, del más antiguo al más reciente (sondeo de nuevos)
+    @Query("SELECT c FROM Comment c WHERE c.artwork.id = :artworkId AND " +
+           "(c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findByArtworkIdNewerThan(
+        @Param("artworkId") Long artworkId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
 
     @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.user.id = :userId ORDER BY c.createdAt DESC")
     List<Comment> findByUserIdOrderByCreatedAtDesc(Long userId);
 
-    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.artwork.id = :artworkId ORDER BY c.createdAt DESC")
-    List<Comment> findTop3ByArtworkIdOrderByCreatedAtDesc(Long artworkId);
+    // Los N comentarios más recientes de cada obra en una sola consulta
+    @Query(value = "SELECT id, artwork_id, user_id, comment_text, created_at, updated_at FROM (" +
+                   "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.artwork_id ORDER BY c.created_at DESC, c.id DESC) AS rn " +
+                   "FROM comments c WHERE c.artwork_id IN (:artworkIds)) ranked " +
+                   "WHERE ranked.rn <= :limit ORDER BY ranked.artwork_id, ranked.created_at DESC, ranked.id DESC",
+           nativeQuery = true)
+    List<Comment> findRecentByArtworkIdIn(Collection<Long> artworkIds, int limit);
 
     Long countByArtworkId(Long artworkId);
 
@@ -1,10 +1,14 @@
 package com.tokapuart.repository;
 
 import com.tokapuart.model.Favorite;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,11 +19,31 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
 
     List<Favorite> findByUserId(Long userId);
 
+    // Keyset sobre (createdAt, id) del favorito: lo último guardado primero, con la obra
+    @Query("SELECT f FROM Favorite f JOIN FETCH f.artwork a " +
+           "WHERE f.user.id = :userId AND (f.createdAt < :createdAt OR (f.createdAt = :createdAt AND f.id < :id)) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Favorite> findByUserIdPage(
+        @Param("userId") Long userId,
+        @Param("createdAt") LocalDateTime createdAt,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
     List<Favorite> findByArtworkId(Long artworkId);
 
     Boolean existsByUserIdAndArtworkId(Long userId, Long artworkId);
 
-    void deleteByUserIdAndArtworkId(Long userId, Long artworkId);
+    // Devuelve 0 si la obra ya era favorita (unique user_id, artwork_id) o no existe
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO favorites (user_id, artwork_id, created_at) " +
+                   "VALUES (:userId, :artworkId, CURRENT_TIMESTAMP)",
+           nativeQuery = true)
+    int insertIgnore(Long userId, Long artworkId);
+
+    @Modifying
+    @Query(value = "DELETE FROM favorites WHERE user_id = :userId AND artwork_id = :artworkId", nativeQuery = true)
+    int deleteFavorite(Long userId, Long artworkId);
 
     @Query("SELECT f.artwork.id FROM Favorite f WHERE f.user.id = :userId")
     List<Long> findArtworkIdsByUserId(Long userId);
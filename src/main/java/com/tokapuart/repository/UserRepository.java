@@ -1,10 +1,14 @@
 package com.tokapuart.repository;
 
+import com.tokapuart.dto.UserSummary;
 import com.tokapuart.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -18,18 +22,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Boolean existsByUsername(String username);
 
-    @Query("SELECT COUNT(a) FROM Artwork a WHERE a.user.id = :userId")
-    Long countArtworksByUserId(Long userId);
+    // Autocompletado: [id, username, seguidores]
+    @Query("SELECT u.id, u.username, COUNT(f.id) FROM User u LEFT JOIN Follower f ON f.following = u GROUP BY u.id, u.username")
+    List<Object[]> findSuggestionSources();
 
-    @Query("SELECT COUNT(f) FROM Favorite f WHERE f.user.id = :userId")
-    Long countFavoritesByUserId(Long userId);
-
-    @Query("SELECT COUNT(c) FROM Comment c WHERE c.user.id = :userId")
-    Long countCommentsByUserId(Long userId);
-
-    @Query("SELECT COUNT(f) FROM Follower f WHERE f.following.id = :userId")
-    Long countFollowersByUserId(Long userId);
-
-    @Query("SELECT COUNT(f) FROM Follower f WHERE f.follower.id = :userId")
-    Long countFollowingByUserId(Long userId);
+    @Query("SELECT new com.tokapuart.dto.UserSummary(u.id, u.username, u.fullName, u.profilePhotoUrl, u.isArtist) " +
+           "FROM User u WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,298 @@
+package com.tokapuart.service;
+
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Incrementos de los contadores desnormalizados de una obra (reacciones, favoritos, comentarios...).
+ * Por defecto se aplica un UPDATE relativo sobre la fila de artworks. Con
+ * artworks.counters.sharded=true cada incremento va a un fragmento al azar de
+ * artwork_counter_shards, de modo que los escritores de una obra viral no hacen cola en
+ * el bloqueo de su fila; las lecturas suman los fragmentos pendientes (con caché de TTL
+ * corto) y una compactación periódica los vuelca a las columnas de Artwork.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArtworkCounterService {
+
+    private static final CounterType[] TYPES = CounterType.values();
+    private static final int COMPACTION_CHUNK = 5000;
+
+    // Todas las columnas en una sola sentencia, para volcar una obra con un UPDATE por lotes
+    private static final String COMPACT_UPDATE_SQL = "UPDATE artworks SET " + Arrays.stream(TYPES)
+            .map(type -> type.column() + " = COALESCE(" + type.column() + ", 0) + ?")
+            .collect(Collectors.joining(", ")) + " WHERE id = ?";
+
+    private static final String SHARD_UPSERT_SQL =
+            "INSERT INTO artwork_counter_shards (artwork_id, counter_type, shard, delta) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE delta = delta + VALUES(delta)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${artworks.counters.sharded:false}")
+    private boolean sharded;
+
+    @Value("${artworks.counters.shards:16}")
+    private int shards;
+
+    @Value("${artworks.counters.read-cache-ttl-ms:2000}")
+    private long readCacheTtlMs;
+
+    private final ConcurrentHashMap<Long, CachedDeltas> readCache = new ConcurrentHashMap<>();
+
+    public boolean increment(Long artworkId, CounterType type, long delta) {
+        long[] deltas = new long[TYPES.length];
+        deltas[type.ordinal()] = delta;
+        return increment(artworkId, deltas);
+    }
+
+    /**
+     * Aplica varios deltas a la vez, indexados por el ordinal de CounterType. Participa
+     * en la transacción del llamador. Devuelve false si la obra no existe (solo se
+     * comprueba sin fragmentos).
+     */
+    public boolean increment(Long artworkId, long[] deltas) {
+        if (!sharded) {
+            List<Object> args = new ArrayList<>();
+            StringBuilder sql = new StringBuilder("UPDATE artworks SET ");
+            for (CounterType type : TYPES) {
+                if (deltas[type.ordinal()] != 0) {
+                    if (!args.isEmpty()) {
+                        sql.append(", ");
+                    }
+                    sql.append(type.column()).append(" = COALESCE(").append(type.column()).append(", 0) + ?");
+                    args.add(deltas[type.ordinal()]);
+                }
+            }
+            if (args.isEmpty()) {
+                return true;
+            }
+            args.add(artworkId);
+            return jdbcTemplate.update(sql.append(" WHERE id = ?").toString(), args.toArray()) > 0;
+        }
+
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        List<Object[]> batch = new ArrayList<>();
+        for (CounterType type : TYPES) {
+            if (deltas[type.ordinal()] != 0) {
+                batch.add(new Object[]{artworkId, type.name(), shard, deltas[type.ordinal()]});
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(SHARD_UPSERT_SQL, batch);
+            readCache.remove(artworkId);
+        }
+        return true;
+    }
+
+    /**
+     * Si un escritor que inserta una fila hija de la obra (reacción, favorito) debe incrementar
+     * antes del INSERT. Sin fragmentos, sí: la clave foránea toma un bloqueo compartido sobre
+     * la obra y el UPDATE posterior tendría que ampliarlo, lo que en MySQL interbloquea a dos
+     * escritores de la misma obra; con el UPDATE primero el bloqueo ya es exclusivo. Con
+     * fragmentos, no: la compactación bloquea la obra y después los fragmentos, y el escritor
+     * debe seguir ese orden (clave foránea y luego fragmento).
+     */
+    public boolean incrementBeforeInsert() {
+        return !sharded;
+    }
+
+    /**
+     * Borra los fragmentos de una obra eliminada.
+     */
+    public void deleteShards(Long artworkId) {
+        if (sharded) {
+            jdbcTemplate.update("DELETE FROM artwork_counter_shards WHERE artwork_id = ?", artworkId);
+            readCache.remove(artworkId);
+        }
+    }
+
+    /**
+     * Deltas todavía no compactados por obra, indexados por el ordinal de CounterType.
+     * Vacío si los contadores fragmentados están desactivados.
+     */
+    public Map<Long, long[]> pendingDeltas(Collection<Long> artworkIds) {
+        Map<Long, long[]> result = new HashMap<>();
+        if (!sharded || artworkIds.isEmpty()) {
+            return result;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : artworkIds) {
+            CachedDeltas cached = readCache.get(id);
+            if (cached != null && cached.expiresAt() > now) {
+                result.put(id, cached.deltas());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, long[]> loaded = new HashMap<>();
+        for (Long id : missing) {
+            loaded.put(id, new long[TYPES.length]);
+        }
+        String placeholders = missing.stream().map(id -> "?").collect(Collectors.joining(", "));
+        jdbcTemplate.query(
+                "SELECT artwork_id, counter_type, SUM(delta) FROM artwork_counter_shards " +
+                "WHERE artwork_id IN (" + placeholders + ") GROUP BY artwork_id, counter_type",
+                rs -> {
+                    long[] deltas = loaded.get(rs.getLong(1));
+                    deltas[CounterType.valueOf(rs.getString(2)).ordinal()] = rs.getLong(3);
+                },
+                missing.toArray());
+
+        long expiresAt = now + readCacheTtlMs;
+        loaded.forEach((id, deltas) -> readCache.put(id, new CachedDeltas(deltas, expiresAt)));
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Contadores actuales de una obra (columna más fragmentos pendientes), indexados por el
+     * ordinal de CounterType. Dentro de una transacción incluye sus propios incrementos.
+     */
+    public long[] currentCounts(Long artworkId) {
+        String columns = Arrays.stream(TYPES)
+                .map(type -> "COALESCE(" + type.column() + ", 0)")
+                .collect(Collectors.joining(", "));
+        List<long[]> rows = jdbcTemplate.query(
+                "SELECT " + columns + " FROM artworks WHERE id = ?",
+                (rs, i) -> {
+                    long[] counts = new long[TYPES.length];
+                    for (CounterType type : TYPES) {
+                        counts[type.ordinal()] = rs.getLong(type.ordinal() + 1);
+                    }
+                    return counts;
+                },
+                artworkId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Obra no encontrada");
+        }
+        long[] counts = rows.get(0);
+        long[] pending = pendingDeltas(List.of(artworkId)).get(artworkId);
+        if (pending != null) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += pending[i];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Deltas pendientes leídos directamente de la base de datos (sin caché) para las obras
+     * con id en [fromId, toId). Vacío si los contadores fragmentados están desactivados.
+     */
+    public Map<Long, long[]> pendingDeltasBetween(long fromId, long toId) {
+        Map<Long, long[]> result = new HashMap<>();
+        if (!sharded) {
+            return result;
+        }
+        jdbcTemplate.query(
+                "SELECT artwork_id, counter_type, SUM(delta) FROM artwork_counter_shards " +
+                "WHERE artwork_id >= ? AND artwork_id < ? GROUP BY artwork_id, counter_type",
+                rs -> {
+                    long[] deltas = result.computeIfAbsent(rs.getLong(1), id -> new long[TYPES.length]);
+                    deltas[CounterType.valueOf(rs.getString(2)).ordinal()] = rs.getLong(3);
+                },
+                fromId, toId);
+        return result;
+    }
+
+    /**
+     * Vuelca los fragmentos a las columnas de artworks. A cada fragmento se le resta
+     * exactamente lo que se leyó, así los incrementos concurrentes no se pierden. Los
+     * fragmentos que quedan a cero no se borran: el siguiente incremento los reutiliza, y
+     * borrarlos competiría con los upserts concurrentes. El índice sobre delta evita que
+     * la búsqueda de pendientes recorra esos fragmentos a cero.
+     */
+    @Scheduled(fixedDelayString = "${artworks.counters.compaction-interval-ms:10000}")
+    public void compact() {
+        if (!sharded) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        readCache.values().removeIf(cached -> cached.expiresAt() <= now);
+
+        try {
+            int compacted;
+            do {
+                compacted = transactionTemplate.execute(status -> compactChunk());
+            } while (compacted == COMPACTION_CHUNK);
+        } catch (Exception e) {
+            // La transacción se deshizo completa: los fragmentos se vuelcan en el siguiente ciclo
+            log.error("Error al compactar contadores: {}", e.getMessage());
+        }
+    }
+
+    private int compactChunk() {
+        // Sin ORDER BY para que el recorrido del índice de delta pare en el LIMIT; el orden se fija abajo
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT artwork_id, counter_type, shard, delta FROM artwork_counter_shards " +
+                "WHERE delta <> 0 LIMIT " + COMPACTION_CHUNK,
+                (rs, i) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getLong(4)});
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        TreeMap<Long, long[]> totals = new TreeMap<>();
+        List<Object[]> subtractions = new ArrayList<>();
+        for (Object[] row : rows) {
+            Long artworkId = (Long) row[0];
+            CounterType type = CounterType.valueOf((String) row[1]);
+            totals.computeIfAbsent(artworkId, id -> new long[TYPES.length])[type.ordinal()] += (Long) row[3];
+            subtractions.add(new Object[]{row[3], artworkId, row[1], row[2]});
+        }
+        // Primero las filas de artworks y después los fragmentos, cada grupo por (obra, tipo,
+        // fragmento): el mismo orden que un escritor que inserta una fila hija (bloqueo de la
+        // obra por la clave foránea) y luego suma en su fragmento
+        subtractions.sort(Comparator
+                .comparing((Object[] row) -> (Long) row[1])
+                .thenComparing(row -> CounterType.valueOf((String) row[2]).ordinal())
+                .thenComparing(row -> (Integer) row[3]));
+
+        jdbcTemplate.batchUpdate(COMPACT_UPDATE_SQL, totals.entrySet().stream()
+                .map(entry -> {
+                    Object[] args = new Object[TYPES.length + 1];
+                    for (int i = 0; i < TYPES.length; i++) {
+                        args[i] = entry.getValue()[i];
+                    }
+                    args[TYPES.length] = entry.getKey();
+                    return args;
+                })
+                .collect(Collectors.toList()));
+        jdbcTemplate.batchUpdate(
+                "UPDATE artwork_counter_shards SET delta = delta - ? WHERE artwork_id = ? AND counter_type = ? AND shard = ?",
+                subtractions);
+
+        totals.keySet().forEach(readCache::remove);
+        log.debug("Compactados {} fragmentos de contadores de {} obras", rows.size(), totals.size());
+        return rows.size();
+    }
+
+    private record CachedDeltas(long[] deltas, long expiresAt) {
+    }
+}
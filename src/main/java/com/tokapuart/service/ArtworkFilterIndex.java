@@ -0,0 +1,363 @@
+package com.tokapuart.service;
+
+import com.tokapuart.event.ArtworkChangedEvent;
+import com.tokapuart.model.Artwork;
+import com.tokapuart.repository.ArtworkRepository;
+import com.tokapuart.util.CompressedBitmap;
+import com.tokapuart.util.TextAnalyzer;
+import com.tokapuart.util.TimeOrderedIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmaps comprimidos de ids de obra por estado, tipo, ciudad, técnica y año de creación.
+ * Una consulta combinada es la intersección de los bitmaps de sus filtros, y los conteos
+ * de facetas son cardinalidades de intersección con el resultado. Los ids no siguen el orden
+ * de creación (cada instancia reserva su bloque), así que el orden del feed sale de un
+ * conjunto aparte ordenado por (createdAt, id).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ArtworkFilterIndex {
+
+    private static final int LOAD_CHUNK = 1000;
+
+    // Por debajo de una obra de cada SPARSE_RATIO, newest() ordena el resultado en lugar de recorrer todas
+    private static final int SPARSE_RATIO = 8;
+
+    /**
+     * Filtros de una consulta; los null no restringen. bbox en formato [minLng, minLat, maxLng, maxLat].
+     */
+    public record Filter(Artwork.ArtworkType type, String city, String technique, double[] bbox,
+                         Integer yearFrom, Integer yearTo) {
+    }
+
+    public record FacetCount(String value, int count) {
+    }
+
+    public record Facets(Map<Artwork.ArtworkType, Integer> types, List<FacetCount> cities, List<FacetCount> techniques) {
+    }
+
+    private final ArtworkRepository artworkRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private State state;
+
+    // Cambios recibidos durante una reconstrucción, para aplicarlos también al estado nuevo
+    private List<ArtworkChangedEvent> replay;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${artworks.filter.rebuild-interval-ms:900000}",
+               initialDelayString = "${artworks.filter.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            State fresh = new State();
+            long lastId = 0;
+            List<Object[]> chunk;
+            do {
+                chunk = artworkRepository.findFilterDocumentsAfter(lastId, PageRequest.of(0, LOAD_CHUNK));
+                for (Object[] row : chunk) {
+                    lastId = (Long) row[0];
+                    fresh.put(lastId, new Doc(
+                            (Artwork.ArtworkStatus) row[1],
+                            (Artwork.ArtworkType) row[2],
+                            (String) row[3],
+                            (String) row[4],
+                            (Integer) row[5],
+                            ((BigDecimal) row[6]).doubleValue(),
+                            ((BigDecimal) row[7]).doubleValue(),
+                            TimeOrderedIds.toMicros((LocalDateTime) row[8])));
+                }
+            } while (chunk.size() == LOAD_CHUNK);
+
+            lock.writeLock().lock();
+            try {
+                replay.forEach(fresh::apply);
+                state = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice de filtros reconstruido con {} obras", fresh.docs.size());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtworkChanged(ArtworkChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null) {
+                replay.add(event);
+            }
+            if (state != null) {
+                state.apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Obras aprobadas que cumplen todos los filtros. Devuelve un bitmap nuevo, propiedad del llamador.
+     */
+    public CompressedBitmap match(Filter filter) {
+        lock.readLock().lock();
+        try {
+            if (state == null) {
+                return new CompressedBitmap();
+            }
+            CompressedBitmap result = state.statuses.get(Artwork.ArtworkStatus.APPROVED);
+            result = result != null ? result.copy() : new CompressedBitmap();
+
+            if (filter.type() != null) {
+                result = result.and(state.types.getOrDefault(filter.type(), new CompressedBitmap()));
+            }
+            if (filter.city() != null) {
+                result = result.and(state.bitmapOf(state.cities, filter.city()));
+            }
+            if (filter.technique() != null) {
+                result = result.and(state.bitmapOf(state.techniques, filter.technique()));
+            }
+            if (filter.yearFrom() != null || filter.yearTo() != null) {
+                CompressedBitmap years = new CompressedBitmap();
+                int from = filter.yearFrom() != null ? filter.yearFrom() : Integer.MIN_VALUE;
+                int to = filter.yearTo() != null ? filter.yearTo() : Integer.MAX_VALUE;
+                if (from <= to) {
+                    for (CompressedBitmap year : state.years.subMap(from, true, to, true).values()) {
+                        years = years.or(year);
+                    }
+                }
+                result = result.and(years);
+            }
+            if (filter.bbox() != null && !result.isEmpty()) {
+                // Las coordenadas no tienen bitmap: se comprueban sobre los candidatos ya reducidos
+                CompressedBitmap inside = new CompressedBitmap();
+                for (int id : result.descending(0, result.cardinality())) {
+                    if (state.docs.get(id).within(filter.bbox())) {
+                        inside.add(id);
+                    }
+                }
+                result = inside;
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hasta limit ids del resultado de la más reciente a la más antigua por (createdAt, id),
+     * saltando los primeros skip. Con un resultado denso se recorre el orden de creación hasta
+     * llenar la página; con uno disperso sale más barato ordenar solo sus ids.
+     */
+    public long[] newest(CompressedBitmap result, int skip, int limit) {
+        lock.readLock().lock();
+        try {
+            int cardinality = result.cardinality();
+            if (state == null || limit <= 0 || skip >= cardinality) {
+                return new long[0];
+            }
+            long[] page = new long[Math.min(limit, cardinality - skip)];
+            int count = 0;
+            if (cardinality * SPARSE_RATIO < state.docs.size()) {
+                int[] ids = result.descending(0, cardinality);
+                List<Recency> sorted = new ArrayList<>(ids.length);
+                for (int id : ids) {
+                    sorted.add(new Recency(state.docs.get(id).createdAt(), id));
+                }
+                sorted.sort(Comparator.reverseOrder());
+                for (int i = skip; i < sorted.size() && count < page.length; i++) {
+                    page[count++] = sorted.get(i).id();
+                }
+            } else {
+                for (Recency entry : state.recency.descendingSet()) {
+                    if (count == page.length) {
+                        break;
+                    }
+                    if (result.contains(entry.id()) && skip-- <= 0) {
+                        page[count++] = entry.id();
+                    }
+                }
+            }
+            return count == page.length ? page : Arrays.copyOf(page, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Conteos por tipo, ciudad y técnica dentro del resultado; ciudades y técnicas limitadas a las maxValues más frecuentes.
+     */
+    public Facets facets(CompressedBitmap result, int maxValues) {
+        lock.readLock().lock();
+        try {
+            Map<Artwork.ArtworkType, Integer> types = new EnumMap<>(Artwork.ArtworkType.class);
+            if (state == null) {
+                return new Facets(types, List.of(), List.of());
+            }
+            for (Map.Entry<Artwork.ArtworkType, CompressedBitmap> entry : state.types.entrySet()) {
+                int count = result.andCardinality(entry.getValue());
+                if (count > 0) {
+                    types.put(entry.getKey(), count);
+                }
+            }
+            return new Facets(types, topValues(state.cities, result, maxValues), topValues(state.techniques, result, maxValues));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<FacetCount> topValues(Map<String, Facet> facets, CompressedBitmap result, int maxValues) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (Facet facet : facets.values()) {
+            int count = result.andCardinality(facet.bitmap);
+            if (count > 0) {
+                counts.add(new FacetCount(facet.label, count));
+            }
+        }
+        counts.sort(Comparator.comparingInt(FacetCount::count).reversed().thenComparing(FacetCount::value));
+        return counts.size() > maxValues ? new ArrayList<>(counts.subList(0, maxValues)) : counts;
+    }
+
+    private record Doc(Artwork.ArtworkStatus status, Artwork.ArtworkType type, String city, String technique,
+                       Integer year, double lat, double lng, long createdAt) {
+
+        boolean within(double[] bbox) {
+            boolean inLng = bbox[0] <= bbox[2] ? (lng >= bbox[0] && lng <= bbox[2]) : (lng >= bbox[0] || lng <= bbox[2]);
+            return inLng && lat >= bbox[1] && lat <= bbox[3];
+        }
+    }
+
+    // Orden de FeedCursor: createdAt en microsegundos y, a igualdad, id
+    private record Recency(long createdAt, long id) implements Comparable<Recency> {
+
+        @Override
+        public int compareTo(Recency other) {
+            return TimeOrderedIds.compare(createdAt, id, other.createdAt, other.id);
+        }
+    }
+
+    /**
+     * Bitmap de un valor de texto (ciudad o técnica) con la forma original con que apareció primero.
+     */
+    private static final class Facet {
+        final String label;
+        final CompressedBitmap bitmap = new CompressedBitmap();
+
+        Facet(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final class State {
+        final Map<Integer, Doc> docs = new HashMap<>();
+        final Map<Artwork.ArtworkStatus, CompressedBitmap> statuses = new EnumMap<>(Artwork.ArtworkStatus.class);
+        final Map<Artwork.ArtworkType, CompressedBitmap> types = new EnumMap<>(Artwork.ArtworkType.class);
+        final Map<String, Facet> cities = new HashMap<>();
+        final Map<String, Facet> techniques = new HashMap<>();
+        final TreeMap<Integer, CompressedBitmap> years = new TreeMap<>();
+        final TreeSet<Recency> recency = new TreeSet<>();
+
+        void apply(ArtworkChangedEvent event) {
+            if (event.changeType() == ArtworkChangedEvent.ChangeType.DELETED) {
+                remove(event.artworkId());
+            } else {
+                put(event.artworkId(), new Doc(event.status(), event.artworkType(), event.city(), event.technique(),
+                        event.yearCreated(), event.latitude(), event.longitude(), TimeOrderedIds.toMicros(event.createdAt())));
+            }
+        }
+
+        void put(Long artworkId, Doc doc) {
+            int id = Math.toIntExact(artworkId);
+            remove(artworkId);
+            docs.put(id, doc);
+            recency.add(new Recency(doc.createdAt(), id));
+            statuses.computeIfAbsent(doc.status(), s -> new CompressedBitmap()).add(id);
+            types.computeIfAbsent(doc.type(), t -> new CompressedBitmap()).add(id);
+            if (doc.city() != null && !doc.city().isBlank()) {
+                cities.computeIfAbsent(key(doc.city()), k -> new Facet(doc.city().trim())).bitmap.add(id);
+            }
+            if (doc.technique() != null && !doc.technique().isBlank()) {
+                techniques.computeIfAbsent(key(doc.technique()), k -> new Facet(doc.technique().trim())).bitmap.add(id);
+            }
+            if (doc.year() != null) {
+                years.computeIfAbsent(doc.year(), y -> new CompressedBitmap()).add(id);
+            }
+        }
+
+        void remove(Long artworkId) {
+            int id = Math.toIntExact(artworkId);
+            Doc doc = docs.remove(id);
+            if (doc == null) {
+                return;
+            }
+            recency.remove(new Recency(doc.createdAt(), id));
+            statuses.get(doc.status()).remove(id);
+            types.get(doc.type()).remove(id);
+            if (doc.city() != null && !doc.city().isBlank()) {
+                removeFrom(cities, key(doc.city()), id);
+            }
+            if (doc.technique() != null && !doc.technique().isBlank()) {
+                removeFrom(techniques, key(doc.technique()), id);
+            }
+            if (doc.year() != null) {
+                CompressedBitmap year = years.get(doc.year());
+                year.remove(id);
+                if (year.isEmpty()) {
+                    years.remove(doc.year());
+                }
+            }
+        }
+
+        CompressedBitmap bitmapOf(Map<String, Facet> facets, String value) {
+            Facet facet = facets.get(key(value));
+            return facet != null ? facet.bitmap : new CompressedBitmap();
+        }
+
+        private static void removeFrom(Map<String, Facet> facets, String key, int id) {
+            Facet facet = facets.get(key);
+            facet.bitmap.remove(id);
+            if (facet.bitmap.isEmpty()) {
+                facets.remove(key);
+            }
+        }
+
+        private static String key(String value) {
+            return TextAnalyzer.fold(value).trim();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.tokapuart.service;
+
+import com.tokapuart.event.ArtworkChangedEvent;
+import com.tokapuart.model.Artwork;
+import com.tokapuart.repository.ArtworkRepository;
+import com.tokapuart.util.ClusterPyramid;
+import com.tokapuart.util.GeoGridIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice espacial en memoria de las obras aprobadas: una rejilla para búsquedas por
+ * radio y k vecinos, y una pirámide de celdas para los clusters del mapa.
+ * Se carga al arrancar, se mantiene con los eventos de ArtworkService y se
+ * reconstruye periódicamente por si otra instancia modificó obras.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ArtworkGeoIndex {
+
+    // Zoom máximo de los mapas web (Google Maps, OSM); los valores mayores se recortan
+    private static final int MAX_MAP_ZOOM = 22;
+
+    private final ArtworkRepository artworkRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Value("${artworks.geo.cell-degrees:0.02}")
+    private double cellDegrees;
+
+    @Value("${artworks.geo.cluster-max-level:16}")
+    private int clusterMaxLevel;
+
+    @Value("${artworks.geo.cluster-max-results:2000}")
+    private int clusterMaxResults;
+
+    private GeoGridIndex grid;
+    private ClusterPyramid pyramid;
+
+    // Cambios recibidos durante una reconstrucción, para aplicarlos también al índice nuevo
+    private List<ArtworkChangedEvent> replay;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${artworks.geo.rebuild-interval-ms:900000}",
+               initialDelayString = "${artworks.geo.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            GeoGridIndex fresh = new GeoGridIndex(cellDegrees);
+            ClusterPyramid freshPyramid = new ClusterPyramid(clusterMaxLevel, Artwork.ArtworkType.values().length);
+            for (Object[] row : artworkRepository.findApprovedLocations()) {
+                long id = (Long) row[0];
+                double lat = ((BigDecimal) row[1]).doubleValue();
+                double lng = ((BigDecimal) row[2]).doubleValue();
+                fresh.put(id, lat, lng);
+                freshPyramid.put(id, lat, lng, ((Artwork.ArtworkType) row[3]).ordinal());
+            }
+
+            lock.writeLock().lock();
+            try {
+                replay.forEach(event -> apply(fresh, freshPyramid, event));
+                grid = fresh;
+                pyramid = freshPyramid;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice espacial reconstruido con {} obras", fresh.size());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtworkChanged(ArtworkChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null) {
+                replay.add(event);
+            }
+            if (grid != null) {
+                apply(grid, pyramid, event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<GeoGridIndex.Hit> withinRadius(double lat, double lng, double radiusMeters) {
+        lock.readLock().lock();
+        try {
+            return grid != null ? grid.withinRadius(lat, lng, radiusMeters) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Clusters del viewport para un nivel de zoom de mapa. Cada tile de zoom z se divide en
+     * 4x4 celdas (nivel z + 2); por encima del nivel máximo se devuelven obras individuales.
+     * El zoom se recorta a [0, 22] y nunca se devuelven más de cluster-max-results clusters:
+     * si no caben, se agrupa a un nivel más grueso.
+     */
+    public List<ClusterPyramid.Cluster> clusters(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        lock.readLock().lock();
+        try {
+            return pyramid != null ? pyramid.query(minLat, minLng, maxLat, maxLng,
+                    Math.min(Math.max(0, zoom), MAX_MAP_ZOOM) + 2, clusterMaxResults) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<GeoGridIndex.Hit> nearest(double lat, double lng, int k, double maxRadiusMeters) {
+        lock.readLock().lock();
+        try {
+            return grid != null ? grid.nearest(lat, lng, k, maxRadiusMeters) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(GeoGridIndex grid, ClusterPyramid pyramid, ArtworkChangedEvent event) {
+        if (event.isVisible()) {
+            grid.put(event.artworkId(), event.latitude(), event.longitude());
+            pyramid.put(event.artworkId(), event.latitude(), event.longitude(), event.artworkType().ordinal());
+        } else {
+            grid.remove(event.artworkId());
+            pyramid.remove(event.artworkId());
+        }
+    }
+}
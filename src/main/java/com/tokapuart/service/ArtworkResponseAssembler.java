@@ -0,0 +1,197 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.ArtworkResponse;
+import com.tokapuart.dto.CommentResponse;
+import com.tokapuart.dto.UserSummary;
+import com.tokapuart.model.Artwork;
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
+import com.tokapuart.model.ArtworkPhoto;
+import com.tokapuart.model.Comment;
+import com.tokapuart.repository.ArtworkPhotoRepository;
+import com.tokapuart.repository.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Construye ArtworkResponse para una página completa de obras.
+ * Fotos y comentarios recientes se cargan con una consulta IN cada uno, así el número de
+ * consultas no depende del tamaño de la página; autores y comentaristas salen de
+ * UserSummaryCache, y favoritos y reacciones del usuario de UserInteractionCache.
+ */
+@Component
+@RequiredArgsConstructor
+public class ArtworkResponseAssembler {
+
+    private static final int RECENT_COMMENTS = 3;
+
+    private final ArtworkPhotoRepository artworkPhotoRepository;
+    private final CommentRepository commentRepository;
+    private final UserSummaryCache userSummaryCache;
+    private final ArtworkViewCounter artworkViewCounter;
+    private final ArtworkCounterService artworkCounterService;
+    private final UserInteractionCache userInteractionCache;
+
+    @Value("${server.base-url:http://10.0.2.2:8080}")
+    private String serverBaseUrl;
+
+    public ArtworkResponse toResponse(Artwork artwork, Long currentUserId) {
+        return toResponses(List.of(artwork), currentUserId).get(0);
+    }
+
+    public List<ArtworkResponse> toResponses(List<Artwork> artworks, Long currentUserId) {
+        if (artworks.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> artworkIds = artworks.stream()
+                .map(Artwork::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<ArtworkPhoto>> photosByArtwork = artworkPhotoRepository.findByArtworkIdIn(artworkIds).stream()
+                .collect(Collectors.groupingBy(photo -> photo.getArtwork().getId()));
+
+        List<Comment> recentComments = commentRepository.findRecentByArtworkIdIn(artworkIds, RECENT_COMMENTS);
+        Map<Long, List<Comment>> commentsByArtwork = recentComments.stream()
+                .collect(Collectors.groupingBy(comment -> comment.getArtwork().getId()));
+
+        // Obras y comentarios solo traen el id del usuario (proxy sin inicializar)
+        Set<Long> userIds = new HashSet<>();
+        artworks.forEach(artwork -> userIds.add(artwork.getUser().getId()));
+        recentComments.forEach(comment -> userIds.add(comment.getUser().getId()));
+        Map<Long, UserSummary> users = userSummaryCache.getAll(userIds);
+
+        Map<Long, long[]> pendingCounters = artworkCounterService.pendingDeltas(artworkIds);
+
+        Set<Long> favoritedIds = new HashSet<>();
+        Map<Long, String> reactionsByArtwork = new HashMap<>();
+        if (currentUserId != null) {
+            UserInteractionCache.Interactions interactions = userInteractionCache.lookup(currentUserId, artworkIds);
+            favoritedIds.addAll(interactions.favorited());
+            interactions.reactions().forEach((artworkId, reaction) -> reactionsByArtwork.put(artworkId, reaction.name()));
+        }
+
+        return artworks.stream()
+                .map(artwork -> build(
+                        artwork,
+                        users,
+                        photosByArtwork.getOrDefault(artwork.getId(), List.of()),
+                        commentsByArtwork.getOrDefault(artwork.getId(), List.of()),
+                        favoritedIds.contains(artwork.getId()),
+                        reactionsByArtwork.get(artwork.getId()),
+                        pendingCounters.get(artwork.getId())))
+                .collect(Collectors.toList());
+    }
+
+    public String buildFullImageUrl(String photoUrl) {
+        if (photoUrl == null || photoUrl.isEmpty()) {
+            return null;
+        }
+        // Si ya es una URL completa, devolverla tal cual
+        if (photoUrl.startsWith("http://") || photoUrl.startsWith("https://")) {
+            return photoUrl;
+        }
+        // Construir URL completa
+        return serverBaseUrl + photoUrl;
+    }
+
+    private ArtworkResponse build(Artwork artwork, Map<Long, UserSummary> users, List<ArtworkPhoto> photos,
+                                  List<Comment> comments, boolean isFavorited, String userReaction, long[] pending) {
+        // Obtener foto principal y construir URL completa
+        String primaryPhotoUrl = photos.stream()
+                .filter(ArtworkPhoto::getIsPrimary)
+                .findFirst()
+                .map(ArtworkPhoto::getPhotoUrl)
+                .or(() -> photos.stream().findFirst().map(ArtworkPhoto::getPhotoUrl))
+                .map(this::buildFullImageUrl)
+                .orElse(null);
+
+        // Comentarios recientes (la consulta ya devuelve como máximo 3 por obra)
+        List<CommentResponse> commentResponses = comments.stream()
+                .map(comment -> mapCommentToResponse(comment, users.get(comment.getUser().getId())))
+                .collect(Collectors.toList());
+
+        UserSummary author = users.get(artwork.getUser().getId());
+
+        return ArtworkResponse.builder()
+                .id(artwork.getId())
+                .userId(artwork.getUser().getId())
+                .authorUsername(author != null ? author.username() : null)
+                .authorName(author != null ? author.fullName() : null)
+                .title(artwork.getTitle())
+                .description(artwork.getDescription())
+                .artistName(artwork.getArtistName())
+                .artworkType(artwork.getArtworkType())
+                .technique(artwork.getTechnique())
+                .yearCreated(artwork.getYearCreated())
+                .latitude(artwork.getLatitude())
+                .longitude(artwork.getLongitude())
+                .address(artwork.getAddress())
+                .city(artwork.getCity())
+                .viewsCount(currentViews(artwork) + (int) pending(pending, CounterType.VIEWS))
+                .uniqueViewers(artwork.getUniqueViewers() != null ? artwork.getUniqueViewers() : 0)
+                .favoritesCount(withPending(artwork.getFavoritesCount(), pending, CounterType.FAVORITES))
+                .commentsCount(withPending(artwork.getCommentsCount(), pending, CounterType.COMMENTS))
+                .validationScore(artwork.getValidationScore())
+                .likesCount(withPending(artwork.getLikesCount(), pending, CounterType.LIKES))
+                .lovesCount(withPending(artwork.getLovesCount(), pending, CounterType.LOVES))
+                .wowsCount(withPending(artwork.getWowsCount(), pending, CounterType.WOWS))
+                .clapsCount(withPending(artwork.getClapsCount(), pending, CounterType.CLAPS))
+                .userReaction(userReaction)
+                .status(artwork.getStatus())
+                .isActive(artwork.getIsActive())
+                .isFavorited(isFavorited)
+                .createdAt(artwork.getCreatedAt())
+                .updatedAt(artwork.getUpdatedAt())
+                .primaryPhotoUrl(primaryPhotoUrl)
+                .photos(photos.stream()
+                        .map(photo -> ArtworkResponse.PhotoResponse.builder()
+                                .id(photo.getId())
+                                .photoUrl(buildFullImageUrl(photo.getPhotoUrl()))
+                                .isPrimary(photo.getIsPrimary())
+                                .orderIndex(photo.getOrderIndex())
+                                .build())
+                        .collect(Collectors.toList()))
+                .recentComments(commentResponses)
+                .build();
+    }
+
+    /**
+     * Valor persistido más las vistas pendientes de volcar.
+     */
+    private int currentViews(Artwork artwork) {
+        int persisted = artwork.getViewsCount() != null ? artwork.getViewsCount() : 0;
+        return persisted + (int) artworkViewCounter.pending(artwork.getId());
+    }
+
+    /**
+     * Columna de la obra más los fragmentos de contador aún no compactados.
+     */
+    private static Integer withPending(Integer persisted, long[] pending, CounterType type) {
+        if (pending == null) {
+            return persisted;
+        }
+        return (persisted != null ? persisted : 0) + (int) pending(pending, type);
+    }
+
+    private static long pending(long[] pending, CounterType type) {
+        return pending != null ? pending[type.ordinal()] : 0L;
+    }
+
+    private CommentResponse mapCommentToResponse(Comment comment, UserSummary user) {
+        return CommentResponse.builder()
+                .id(comment.getId())
+                .artworkId(comment.getArtwork().getId())
+                .userId(comment.getUser().getId())
+                .username(user != null ? user.username() : null)
+                .userFullName(user != null ? user.fullName() : null)
+                .userPhotoUrl(user != null ? buildFullImageUrl(user.profilePhotoUrl()) : null)
+                .commentText(comment.getCommentText())
+                .createdAt(comment.getCreatedAt())
+                .updatedAt(comment.getUpdatedAt())
+                .build();
+    }
+}
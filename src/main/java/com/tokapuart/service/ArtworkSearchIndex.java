@@ -0,0 +1,123 @@
+package com.tokapuart.service;
+
+import com.tokapuart.event.ArtworkChangedEvent;
+import com.tokapuart.repository.ArtworkRepository;
+import com.tokapuart.util.InvertedIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Índice de texto completo de las obras aprobadas sobre título, artista y descripción.
+ * Se actualiza de forma incremental con los eventos de ArtworkService.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ArtworkSearchIndex {
+
+    // Pesos de los campos: título, nombre del artista, descripción
+    private static final float[] FIELD_BOOSTS = {3.0f, 2.0f, 1.0f};
+    private static final int LOAD_CHUNK = 1000;
+
+    private final ArtworkRepository artworkRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private InvertedIndex index;
+
+    // Cambios recibidos durante una reconstrucción, para aplicarlos también al índice nuevo
+    private List<ArtworkChangedEvent> replay;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${artworks.search.rebuild-interval-ms:900000}",
+               initialDelayString = "${artworks.search.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            InvertedIndex fresh = new InvertedIndex(FIELD_BOOSTS);
+            long lastId = 0;
+            List<Object[]> chunk;
+            do {
+                chunk = artworkRepository.findSearchDocumentsAfter(lastId, PageRequest.of(0, LOAD_CHUNK));
+                for (Object[] row : chunk) {
+                    lastId = (Long) row[0];
+                    fresh.put(lastId, (String) row[1], (String) row[2], (String) row[3]);
+                }
+            } while (chunk.size() == LOAD_CHUNK);
+
+            lock.writeLock().lock();
+            try {
+                replay.forEach(event -> apply(fresh, event));
+                index = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice de búsqueda reconstruido con {} obras", fresh.size());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtworkChanged(ArtworkChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null) {
+                replay.add(event);
+            }
+            if (index != null) {
+                apply(index, event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public InvertedIndex.SearchResult search(String query, int maxHits) {
+        lock.readLock().lock();
+        try {
+            return index != null ? index.search(query, maxHits) : new InvertedIndex.SearchResult(List.of(), 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public InvertedIndex.SearchResult search(String query, int maxHits, LongPredicate filter) {
+        lock.readLock().lock();
+        try {
+            return index != null ? index.search(query, maxHits, filter) : new InvertedIndex.SearchResult(List.of(), 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(InvertedIndex index, ArtworkChangedEvent event) {
+        if (event.isVisible()) {
+            index.put(event.artworkId(), event.title(), event.artistName(), event.description());
+        } else {
+            index.remove(event.artworkId());
+        }
+    }
+}
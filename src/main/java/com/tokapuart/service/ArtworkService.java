@@ -1,44 +1,56 @@
 package com.tokapuart.service;
 
+import com.tokapuart.dto.ArtworkClusterResponse;
+import com.tokapuart.dto.ArtistStatsResponse;
+import com.tokapuart.dto.ArtworkQueryResponse;
 import com.tokapuart.dto.ArtworkRequest;
 import com.tokapuart.dto.ArtworkResponse;
-import com.tokapuart.dto.CommentResponse;
+import com.tokapuart.dto.CursorPage;
+import com.tokapuart.event.ArtworkChangedEvent;
+import com.tokapuart.event.InteractionChangedEvent;
 import com.tokapuart.model.*;
 import com.tokapuart.repository.*;
+import com.tokapuart.util.ClusterPyramid;
+import com.tokapuart.util.CompressedBitmap;
+import com.tokapuart.util.FeedCursor;
+import com.tokapuart.util.GeoGridIndex;
+import com.tokapuart.util.InvertedIndex;
+import com.tokapuart.util.RankCursor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ArtworkService {
 
+    // Valores distintos de ciudad y técnica que se devuelven como facetas
+    private static final int FACET_VALUES = 10;
+
     private final ArtworkRepository artworkRepository;
-    private final ArtworkPhotoRepository artworkPhotoRepository;
     private final UserRepository userRepository;
-    private final FavoriteRepository favoriteRepository;
-    private final CommentRepository commentRepository;
-    private final ArtworkReactionRepository artworkReactionRepository;
-
-    @Value("${server.base-url:http://10.0.2.2:8080}")
-    private String serverBaseUrl;
-
-    private String buildFullImageUrl(String photoUrl) {
-        if (photoUrl == null || photoUrl.isEmpty()) {
-            return null;
-        }
-        // Si ya es una URL completa, devolverla tal cual
-        if (photoUrl.startsWith("http://") || photoUrl.startsWith("https://")) {
-            return photoUrl;
-        }
-        // Construir URL completa
-        return serverBaseUrl + photoUrl;
-    }
+    private final ArtworkResponseAssembler artworkResponseAssembler;
+    private final ArtworkViewCounter artworkViewCounter;
+    private final ArtworkGeoIndex artworkGeoIndex;
+    private final ArtworkSearchIndex artworkSearchIndex;
+    private final ArtworkFilterIndex artworkFilterIndex;
+    private final ArtworkCounterService artworkCounterService;
+    private final ArtworkTrendingIndex artworkTrendingIndex;
+    private final ArtworkUniqueViewers artworkUniqueViewers;
+    private final UserStatsService userStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageSizes pageSizes;
 
     @Transactional
     public ArtworkResponse createArtwork(ArtworkRequest request, Long userId) {
@@ -60,6 +72,7 @@ public class ArtworkService {
                 .status(Artwork.ArtworkStatus.APPROVED) // Auto-aprobar por ahora
                 .isActive(true)
                 .viewsCount(0)
+                .uniqueViewers(0)
                 .favoritesCount(0)
                 .commentsCount(0)
                 .validationScore(0)
@@ -70,64 +83,200 @@ public class ArtworkService {
                 .build();
 
         artwork = artworkRepository.save(artwork);
+        userStatsService.increment(userId, UserStats.StatType.ARTWORKS, 1);
+        eventPublisher.publishEvent(ArtworkChangedEvent.of(ArtworkChangedEvent.ChangeType.CREATED, artwork));
 
         return mapToResponse(artwork, userId);
     }
 
     @Transactional(readOnly = true)
-    public List<ArtworkResponse> getAllArtworks(Long currentUserId) {
-        return artworkRepository.findAllApproved().stream()
-                .map(artwork -> mapToResponse(artwork, currentUserId))
-                .collect(Collectors.toList());
+    public CursorPage<ArtworkResponse> getAllArtworks(String cursor, Integer size, Long currentUserId) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = pageSizes.resolve(size);
+        List<Artwork> artworks = artworkRepository.findApprovedPage(
+                after.createdAt(), after.id(), PageRequest.of(0, pageSize + 1));
+        return toPage(artworks, pageSize, currentUserId);
     }
 
     @Transactional(readOnly = true)
-    public ArtworkResponse getArtworkById(Long id, Long currentUserId) {
+    public ArtworkResponse getArtworkById(Long id, Long currentUserId, String clientFingerprint) {
         Artwork artwork = artworkRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Obra no encontrada"));
 
-        // Incrementar contador de vistas (manejar null)
-        Integer currentViews = artwork.getViewsCount() != null ? artwork.getViewsCount() : 0;
-        artwork.setViewsCount(currentViews + 1);
-        artworkRepository.save(artwork);
+        // La vista se acumula en memoria y se vuelca por lotes (ver ArtworkViewCounter)
+        artworkViewCounter.record(artwork.getId());
+        if (currentUserId != null) {
+            artworkUniqueViewers.record(artwork.getId(), "u:" + currentUserId);
+        } else if (clientFingerprint != null) {
+            artworkUniqueViewers.record(artwork.getId(), "c:" + clientFingerprint);
+        }
+        eventPublisher.publishEvent(InteractionChangedEvent.view(currentUserId, artwork.getId()));
 
         return mapToResponse(artwork, currentUserId);
     }
 
     @Transactional(readOnly = true)
-    public List<ArtworkResponse> getArtworksByUserId(Long userId, Long currentUserId) {
-        return artworkRepository.findByUserId(userId).stream()
-                .map(artwork -> mapToResponse(artwork, currentUserId))
-                .collect(Collectors.toList());
+    public CursorPage<ArtworkResponse> getArtworksByUserId(Long userId, String cursor, Integer size, Long currentUserId) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = pageSizes.resolve(size);
+        List<Artwork> artworks = artworkRepository.findByUserIdPage(
+                userId, after.createdAt(), after.id(), PageRequest.of(0, pageSize + 1));
+        return toPage(artworks, pageSize, currentUserId);
     }
 
+    /**
+     * Búsqueda por relevancia (BM25) en el índice en memoria; solo la página pedida se carga de la base de datos.
+     */
     @Transactional(readOnly = true)
-    public List<ArtworkResponse> searchArtworks(String query, Long currentUserId) {
-        return artworkRepository.searchArtworks(query).stream()
-                .map(artwork -> mapToResponse(artwork, currentUserId))
+    public CursorPage<ArtworkResponse> searchArtworks(String query, String cursor, Integer size, Long currentUserId) {
+        RankCursor after = RankCursor.decode(cursor);
+        int pageSize = pageSizes.resolve(size);
+
+        List<InvertedIndex.ScoredDoc> ranked = artworkSearchIndex.search(query, after.offset() + pageSize + 1).hits();
+        List<Long> pageIds = ranked.stream()
+                .skip(after.offset())
+                .limit(pageSize)
+                .map(InvertedIndex.ScoredDoc::id)
                 .collect(Collectors.toList());
+        boolean hasMore = ranked.size() > after.offset() + pageSize;
+
+        return CursorPage.<ArtworkResponse>builder()
+                .items(artworkResponseAssembler.toResponses(findAllInOrder(pageIds), currentUserId))
+                .nextCursor(hasMore ? new RankCursor(after.offset() + pageSize).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
+    /**
+     * Consulta combinada: los filtros se resuelven intersectando los bitmaps de ArtworkFilterIndex.
+     * Con texto los resultados salen por relevancia; sin texto, de la obra más reciente a la más antigua.
+     */
     @Transactional(readOnly = true)
-    public List<ArtworkResponse> filterByType(Artwork.ArtworkType type, Long currentUserId) {
-        return artworkRepository.findByArtworkTypeAndApproved(type).stream()
-                .map(artwork -> mapToResponse(artwork, currentUserId))
-                .collect(Collectors.toList());
+    public ArtworkQueryResponse queryArtworks(String text, Artwork.ArtworkType type, String city, String technique,
+                                              String bbox, Integer yearFrom, Integer yearTo,
+                                              String cursor, Integer size, Long currentUserId) {
+        RankCursor after = RankCursor.decode(cursor);
+        int pageSize = pageSizes.resolve(size);
+        CompressedBitmap matches = artworkFilterIndex.match(new ArtworkFilterIndex.Filter(
+                type,
+                city != null && !city.isBlank() ? city : null,
+                technique != null && !technique.isBlank() ? technique : null,
+                bbox != null ? parseBbox(bbox) : null,
+                yearFrom,
+                yearTo));
+
+        List<Long> pageIds;
+        int total;
+        if (text != null && !text.isBlank()) {
+            CompressedBitmap candidates = matches;
+            List<InvertedIndex.ScoredDoc> ranked = artworkSearchIndex.search(text, Integer.MAX_VALUE, candidates::contains).hits();
+            matches = new CompressedBitmap();
+            for (InvertedIndex.ScoredDoc doc : ranked) {
+                matches.add(Math.toIntExact(doc.id()));
+            }
+            total = ranked.size();
+            pageIds = ranked.stream()
+                    .skip(after.offset())
+                    .limit(pageSize)
+                    .map(InvertedIndex.ScoredDoc::id)
+                    .collect(Collectors.toList());
+        } else {
+            total = matches.cardinality();
+            pageIds = Arrays.stream(artworkFilterIndex.newest(matches, after.offset(), pageSize))
+                    .boxed()
+                    .collect(Collectors.toList());
+        }
+        boolean hasMore = after.offset() + pageIds.size() < total;
+
+        ArtworkFilterIndex.Facets facets = artworkFilterIndex.facets(matches, FACET_VALUES);
+        return ArtworkQueryResponse.builder()
+                .items(artworkResponseAssembler.toResponses(findAllInOrder(pageIds), currentUserId))
+                .nextCursor(hasMore ? new RankCursor(after.offset() + pageSize).encode() : null)
+                .hasMore(hasMore)
+                .total(total)
+                .facets(ArtworkQueryResponse.Facets.builder()
+                        .artworkType(facets.types())
+                        .city(toFacetCounts(facets.cities()))
+                        .technique(toFacetCounts(facets.techniques()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Vistas y visitantes distintos de cada obra del artista; el total de visitantes sale de su
+     * sketch conjunto, así quien vio varias obras cuenta una sola vez.
+     */
+    @Transactional(readOnly = true)
+    public ArtistStatsResponse getArtistStats(Long userId) {
+        List<ArtistStatsResponse.ArtworkStats> artworks = new ArrayList<>();
+        long totalViews = 0;
+        for (Object[] row : artworkRepository.findStatsByUserId(userId)) {
+            Long artworkId = (Long) row[0];
+            int views = (row[2] != null ? (Integer) row[2] : 0) + (int) artworkViewCounter.pending(artworkId);
+            totalViews += views;
+            artworks.add(ArtistStatsResponse.ArtworkStats.builder()
+                    .artworkId(artworkId)
+                    .title((String) row[1])
+                    .viewsCount(views)
+                    .uniqueViewers(row[3] != null ? (Integer) row[3] : 0)
+                    .build());
+        }
+        return ArtistStatsResponse.builder()
+                .userId(userId)
+                .artworksCount(artworks.size())
+                .totalViews(totalViews)
+                .uniqueViewers(artworkUniqueViewers.estimateForArtist(userId))
+                .artworks(artworks)
+                .build();
+    }
+
+    /**
+     * Obras en tendencia (globales o de una ciudad) según ArtworkTrendingIndex; solo se cargan las obras del ranking.
+     */
+    @Transactional(readOnly = true)
+    public List<ArtworkResponse> getTrending(String city, Integer limit, Long currentUserId) {
+        List<Long> ids = artworkTrendingIndex.top(city, pageSizes.resolve(limit));
+        return artworkResponseAssembler.toResponses(findAllInOrder(ids), currentUserId);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ArtworkResponse> filterByType(Artwork.ArtworkType type, String cursor, Integer size, Long currentUserId) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = pageSizes.resolve(size);
+        List<Artwork> artworks = artworkRepository.findByArtworkTypeAndApprovedPage(
+                type, after.createdAt(), after.id(), PageRequest.of(0, pageSize + 1));
+        return toPage(artworks, pageSize, currentUserId);
     }
 
     @Transactional(readOnly = true)
-    public List<ArtworkResponse> getNearbyArtworks(BigDecimal lat, BigDecimal lng, Double radiusKm, Long currentUserId) {
-        // Calcular aproximación simple de radio en grados
-        double latDelta = radiusKm / 111.0; // 1 grado lat ≈ 111 km
-        double lngDelta = radiusKm / (111.0 * Math.cos(Math.toRadians(lat.doubleValue())));
-
-        BigDecimal minLat = lat.subtract(BigDecimal.valueOf(latDelta));
-        BigDecimal maxLat = lat.add(BigDecimal.valueOf(latDelta));
-        BigDecimal minLng = lng.subtract(BigDecimal.valueOf(lngDelta));
-        BigDecimal maxLng = lng.add(BigDecimal.valueOf(lngDelta));
-
-        return artworkRepository.findNearby(minLat, maxLat, minLng, maxLng).stream()
-                .map(artwork -> mapToResponse(artwork, currentUserId))
+    public List<ArtworkResponse> getNearbyArtworks(BigDecimal lat, BigDecimal lng, Double radiusKm, Integer limit, Long currentUserId) {
+        List<GeoGridIndex.Hit> hits = artworkGeoIndex.withinRadius(lat.doubleValue(), lng.doubleValue(), radiusKm * 1000);
+        int maxResults = pageSizes.resolve(limit);
+        return hydrateHits(hits.size() > maxResults ? hits.subList(0, maxResults) : hits, currentUserId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ArtworkResponse> getNearestArtworks(BigDecimal lat, BigDecimal lng, Integer k, Double maxRadiusKm, Long currentUserId) {
+        List<GeoGridIndex.Hit> hits = artworkGeoIndex.nearest(
+                lat.doubleValue(), lng.doubleValue(), pageSizes.resolve(k), maxRadiusKm * 1000);
+        return hydrateHits(hits, currentUserId);
+    }
+
+    /**
+     * bbox en formato "minLng,minLat,maxLng,maxLat". Se resuelve solo con el índice en memoria.
+     */
+    public List<ArtworkClusterResponse> getClusters(String bbox, int zoom) {
+        double[] bounds = parseBbox(bbox);
+        Artwork.ArtworkType[] types = Artwork.ArtworkType.values();
+
+        return artworkGeoIndex.clusters(bounds[1], bounds[0], bounds[3], bounds[2], zoom).stream()
+                .map(cluster -> ArtworkClusterResponse.builder()
+                        .latitude(cluster.latitude())
+                        .longitude(cluster.longitude())
+                        .count(cluster.count())
+                        .dominantType(types[cluster.dominantType()])
+                        .sampleArtworkId(cluster.sampleId())
+                        .build())
                 .collect(Collectors.toList());
     }
 
@@ -148,6 +297,7 @@ public class ArtworkService {
         artwork.setYearCreated(request.getYearCreated());
 
         artwork = artworkRepository.save(artwork);
+        eventPublisher.publishEvent(ArtworkChangedEvent.of(ArtworkChangedEvent.ChangeType.UPDATED, artwork));
 
         return mapToResponse(artwork, userId);
     }
@@ -161,94 +311,107 @@ public class ArtworkService {
             throw new RuntimeException("No tienes permiso para eliminar esta obra");
         }
 
+        userStatsService.artworkDeleting(id, userId);
         artworkRepository.delete(artwork);
+        artworkCounterService.deleteShards(id);
+        artworkUniqueViewers.delete(id);
+        eventPublisher.publishEvent(ArtworkChangedEvent.of(ArtworkChangedEvent.ChangeType.DELETED, artwork));
     }
 
-    private ArtworkResponse mapToResponse(Artwork artwork, Long currentUserId) {
-        // Obtener fotos
-        List<ArtworkPhoto> photos = artworkPhotoRepository.findByArtworkIdOrderByOrderIndexAsc(artwork.getId());
-
-        // Obtener foto principal y construir URL completa
-        String primaryPhotoUrl = photos.stream()
-                .filter(ArtworkPhoto::getIsPrimary)
-                .findFirst()
-                .map(ArtworkPhoto::getPhotoUrl)
-                .or(() -> photos.stream().findFirst().map(ArtworkPhoto::getPhotoUrl))
-                .map(this::buildFullImageUrl)
-                .orElse(null);
-
-        // Obtener comentarios recientes (últimos 3)
-        List<Comment> comments = commentRepository.findTop3ByArtworkIdOrderByCreatedAtDesc(artwork.getId());
-        List<CommentResponse> commentResponses = comments.stream()
-                .limit(3)
-                .map(this::mapCommentToResponse)
+    /**
+     * Carga en una consulta las obras devueltas por el índice espacial, conservando su orden por distancia.
+     */
+    private List<ArtworkResponse> hydrateHits(List<GeoGridIndex.Hit> hits, Long currentUserId) {
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Artwork> artworksById = artworkRepository.findAllByIdIn(
+                        hits.stream().map(GeoGridIndex.Hit::id).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Artwork::getId, Function.identity()));
+
+        // Una obra puede haberse eliminado desde la última actualización del índice
+        List<Artwork> ordered = new ArrayList<>();
+        List<Double> distances = new ArrayList<>();
+        for (GeoGridIndex.Hit hit : hits) {
+            Artwork artwork = artworksById.get(hit.id());
+            if (artwork != null) {
+                ordered.add(artwork);
+                distances.add(hit.distanceMeters());
+            }
+        }
+
+        List<ArtworkResponse> responses = artworkResponseAssembler.toResponses(ordered, currentUserId);
+        for (int i = 0; i < responses.size(); i++) {
+            responses.get(i).setDistanceMeters(distances.get(i));
+        }
+        return responses;
+    }
+
+    /**
+     * Carga las obras en una consulta y las devuelve en el orden de los ids recibidos.
+     */
+    private List<Artwork> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Artwork> artworksById = artworkRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Artwork::getId, Function.identity()));
+        return ids.stream()
+                .map(artworksById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+    }
 
-        // Verificar si el usuario actual tiene esta obra como favorita
-        Boolean isFavorited = currentUserId != null &&
-                favoriteRepository.existsByUserIdAndArtworkId(currentUserId, artwork.getId());
+    private List<ArtworkQueryResponse.FacetCount> toFacetCounts(List<ArtworkFilterIndex.FacetCount> counts) {
+        return counts.stream()
+                .map(count -> ArtworkQueryResponse.FacetCount.builder()
+                        .value(count.value())
+                        .count(count.count())
+                        .build())
+                .collect(Collectors.toList());
+    }
 
-        // Obtener reacción del usuario actual
-        String userReaction = null;
-        if (currentUserId != null) {
-            userReaction = artworkReactionRepository.findByUserIdAndArtworkId(currentUserId, artwork.getId())
-                    .map(reaction -> reaction.getReactionType().name())
-                    .orElse(null);
+    private double[] parseBbox(String bbox) {
+        String[] parts = bbox != null ? bbox.split(",") : new String[0];
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox inválido: se espera minLng,minLat,maxLng,maxLat");
+        }
+        double[] bounds = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                bounds[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox inválido: se espera minLng,minLat,maxLng,maxLat");
+        }
+        if (bounds[1] > bounds[3]) {
+            throw new IllegalArgumentException("bbox inválido: minLat mayor que maxLat");
+        }
+        return bounds;
+    }
+
+    /**
+     * Recibe hasta pageSize + 1 filas: la fila extra solo indica si existe otra página.
+     */
+    private CursorPage<ArtworkResponse> toPage(List<Artwork> artworks, int pageSize, Long currentUserId) {
+        boolean hasMore = artworks.size() > pageSize;
+        List<Artwork> page = hasMore ? artworks.subList(0, pageSize) : artworks;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Artwork last = page.get(page.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
         }
 
-        return ArtworkResponse.builder()
-                .id(artwork.getId())
-                .userId(artwork.getUser().getId())
-                .authorUsername(artwork.getUser().getUsername())
-                .authorName(artwork.getUser().getFullName())
-                .title(artwork.getTitle())
-                .description(artwork.getDescription())
-                .artistName(artwork.getArtistName())
-                .artworkType(artwork.getArtworkType())
-                .technique(artwork.getTechnique())
-                .yearCreated(artwork.getYearCreated())
-                .latitude(artwork.getLatitude())
-                .longitude(artwork.getLongitude())
-                .address(artwork.getAddress())
-                .city(artwork.getCity())
-                .viewsCount(artwork.getViewsCount())
-                .favoritesCount(artwork.getFavoritesCount())
-                .commentsCount(artwork.getCommentsCount())
-                .validationScore(artwork.getValidationScore())
-                .likesCount(artwork.getLikesCount())
-                .lovesCount(artwork.getLovesCount())
-                .wowsCount(artwork.getWowsCount())
-                .clapsCount(artwork.getClapsCount())
-                .userReaction(userReaction)
-                .status(artwork.getStatus())
-                .isActive(artwork.getIsActive())
-                .isFavorited(isFavorited)
-                .createdAt(artwork.getCreatedAt())
-                .updatedAt(artwork.getUpdatedAt())
-                .primaryPhotoUrl(primaryPhotoUrl)
-                .photos(photos.stream()
-                        .map(photo -> ArtworkResponse.PhotoResponse.builder()
-                                .id(photo.getId())
-                                .photoUrl(buildFullImageUrl(photo.getPhotoUrl()))
-                                .isPrimary(photo.getIsPrimary())
-                                .orderIndex(photo.getOrderIndex())
-                                .build())
-                        .collect(Collectors.toList()))
-                .recentComments(commentResponses)
+        return CursorPage.<ArtworkResponse>builder()
+                .items(artworkResponseAssembler.toResponses(page, currentUserId))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
                 .build();
     }
 
-    private CommentResponse mapCommentToResponse(Comment comment) {
-        return CommentResponse.builder()
-                .id(comment.getId())
-                .artworkId(comment.getArtwork().getId())
-                .userId(comment.getUser().getId())
-                .username(comment.getUser().getUsername())
-                .userFullName(comment.getUser().getFullName())
-                .userPhotoUrl(buildFullImageUrl(comment.getUser().getProfilePhotoUrl()))
-                .commentText(comment.getCommentText())
-                .createdAt(comment.getCreatedAt())
-                .updatedAt(comment.getUpdatedAt())
-                .build();
+    private ArtworkResponse mapToResponse(Artwork artwork, Long currentUserId) {
+        return artworkResponseAssembler.toResponse(artwork, currentUserId);
     }
 }
@@ -0,0 +1,293 @@
+package com.tokapuart.service;
+
+import com.tokapuart.event.ArtworkChangedEvent;
+import com.tokapuart.event.InteractionChangedEvent;
+import com.tokapuart.repository.ArtworkRepository;
+import com.tokapuart.util.TextAnalyzer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Obras en tendencia a partir de vistas, reacciones, favoritos y comentarios.
+ * Cada obra guarda una puntuación con decaimiento exponencial (vida media configurable)
+ * en una referencia atómica que se actualiza con CAS, sin bloqueos. Como todas las
+ * puntuaciones decaen al mismo ritmo, el orden entre dos obras solo cambia cuando una
+ * recibe un evento: se compara por la clave ln(puntuación) + λ·t, que no depende de la
+ * hora de la consulta, y un ranking acotado a las K mejores por ciudad y global se
+ * mantiene al vuelo. Las consultas solo leen esos rankings; nada se calcula en SQL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ArtworkTrendingIndex {
+
+    private static final String GLOBAL = "";
+    private static final double MIN_SCORE = 0.05;
+    private static final int WARMUP_HALF_LIVES = 4;
+
+    private final ArtworkRepository artworkRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${artworks.trending.half-life-ms:21600000}")
+    private long halfLifeMs;
+
+    @Value("${artworks.trending.top-k:100}")
+    private int topK;
+
+    private final long origin = System.currentTimeMillis();
+
+    private final ConcurrentHashMap<Long, AtomicReference<Score>> scores = new ConcurrentHashMap<>();
+
+    // Ciudad normalizada de cada obra aprobada ("" si no tiene); las demás no puntúan
+    private final ConcurrentHashMap<Long, String> cityByArtwork = new ConcurrentHashMap<>();
+
+    private volatile Map<String, Board> boards = new ConcurrentHashMap<>();
+
+    /**
+     * Carga las ciudades y repite las interacciones recientes con su fecha; las vistas no
+     * quedan registradas en la base de datos y empiezan de cero.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (Object[] row : artworkRepository.findApprovedCities()) {
+            cityByArtwork.put((Long) row[0], cityKey((String) row[1]));
+        }
+        Timestamp since = new Timestamp(System.currentTimeMillis() - WARMUP_HALF_LIVES * halfLifeMs);
+        replay("SELECT artwork_id, created_at FROM favorites WHERE created_at >= ?", InteractionChangedEvent.Kind.FAVORITE, since);
+        replay("SELECT artwork_id, created_at FROM comments WHERE created_at >= ?", InteractionChangedEvent.Kind.COMMENT, since);
+        replay("SELECT artwork_id, created_at FROM artwork_reactions WHERE created_at >= ?", InteractionChangedEvent.Kind.REACTION, since);
+        log.info("Índice de tendencias iniciado con {} obras puntuadas", scores.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteraction(InteractionChangedEvent event) {
+        double weight = weight(event);
+        if (weight > 0) {
+            record(event.artworkId(), weight, System.currentTimeMillis());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtworkChanged(ArtworkChangedEvent event) {
+        Long artworkId = event.artworkId();
+        if (!event.isVisible()) {
+            cityByArtwork.remove(artworkId);
+            scores.remove(artworkId);
+            boards.values().forEach(board -> board.remove(artworkId));
+            return;
+        }
+        String city = cityKey(event.city());
+        String previous = cityByArtwork.put(artworkId, city);
+        if (previous != null && !previous.equals(city)) {
+            Board board = boards.get(previous);
+            if (board != null) {
+                board.remove(artworkId);
+            }
+            AtomicReference<Score> score = scores.get(artworkId);
+            if (score != null) {
+                offer(artworkId, city, score.get().key(lambda(), origin));
+            }
+        }
+    }
+
+    /**
+     * Ids de las obras en tendencia, de mayor a menor puntuación; city null para el ranking global.
+     */
+    public List<Long> top(String city, int limit) {
+        Board board = boards.get(city == null || city.isBlank() ? GLOBAL : cityKey(city));
+        return board != null ? board.top(Math.min(limit, topK)) : List.of();
+    }
+
+    /**
+     * Descarta las puntuaciones ya despreciables y reconstruye los rankings desde las
+     * puntuaciones en memoria, para rellenar los huecos que dejan las obras borradas.
+     */
+    @Scheduled(fixedDelayString = "${artworks.trending.maintenance-interval-ms:300000}",
+               initialDelayString = "${artworks.trending.maintenance-interval-ms:300000}")
+    public void maintain() {
+        long now = System.currentTimeMillis();
+        double lambda = lambda();
+        Map<String, Board> fresh = new ConcurrentHashMap<>();
+        scores.forEach((artworkId, ref) -> {
+            Score score = ref.get();
+            String city = cityByArtwork.get(artworkId);
+            if (city == null || score.valueAt(now, lambda) < MIN_SCORE) {
+                scores.remove(artworkId, ref);
+                return;
+            }
+            double key = score.key(lambda, origin);
+            fresh.computeIfAbsent(GLOBAL, c -> new Board(topK)).offer(artworkId, key);
+            if (!city.isEmpty()) {
+                fresh.computeIfAbsent(city, c -> new Board(topK)).offer(artworkId, key);
+            }
+        });
+        boards = fresh;
+        log.debug("Índice de tendencias: {} obras puntuadas, {} rankings", scores.size(), fresh.size());
+    }
+
+    private void record(Long artworkId, double weight, long at) {
+        String city = cityByArtwork.get(artworkId);
+        if (city == null) {
+            return;
+        }
+        double lambda = lambda();
+        AtomicReference<Score> ref = scores.computeIfAbsent(artworkId, id -> new AtomicReference<>(Score.ZERO));
+        Score previous;
+        Score next;
+        do {
+            previous = ref.get();
+            next = previous.plus(weight, at, lambda);
+        } while (!ref.compareAndSet(previous, next));
+        offer(artworkId, city, next.key(lambda, origin));
+    }
+
+    private void offer(Long artworkId, String city, double key) {
+        Map<String, Board> current = boards;
+        current.computeIfAbsent(GLOBAL, c -> new Board(topK)).offer(artworkId, key);
+        if (!city.isEmpty()) {
+            current.computeIfAbsent(city, c -> new Board(topK)).offer(artworkId, key);
+        }
+    }
+
+    private void replay(String sql, InteractionChangedEvent.Kind kind, Timestamp since) {
+        double weight = weight(kind);
+        jdbcTemplate.query(sql, rs -> {
+            Timestamp at = rs.getTimestamp(2);
+            if (at != null) {
+                record(rs.getLong(1), weight, at.getTime());
+            }
+        }, since);
+    }
+
+    private static double weight(InteractionChangedEvent event) {
+        return switch (event.kind()) {
+            case FAVORITE -> event.favorited() ? weight(event.kind()) : 0;
+            case REACTION -> event.reactionType() != null ? weight(event.kind()) : 0;
+            default -> weight(event.kind());
+        };
+    }
+
+    private static double weight(InteractionChangedEvent.Kind kind) {
+        return switch (kind) {
+            case VIEW -> 1;
+            case REACTION -> 3;
+            case COMMENT -> 4;
+            case FAVORITE -> 5;
+        };
+    }
+
+    private double lambda() {
+        return Math.log(2) / halfLifeMs;
+    }
+
+    private static String cityKey(String city) {
+        return city == null ? GLOBAL : TextAnalyzer.fold(city).trim();
+    }
+
+    /**
+     * Puntuación value en el instante at; en otro instante t vale value·e^(−λ(t − at)).
+     */
+    private record Score(double value, long at) {
+
+        static final Score ZERO = new Score(0, Long.MIN_VALUE);
+
+        Score plus(double weight, long when, double lambda) {
+            if (value == 0) {
+                return new Score(weight, when);
+            }
+            if (when >= at) {
+                return new Score(value * Math.exp(-lambda * (when - at)) + weight, when);
+            }
+            // Evento más antiguo que el último (p. ej. al repetir el historial): se suma ya decaído
+            return new Score(value + weight * Math.exp(-lambda * (at - when)), at);
+        }
+
+        double valueAt(long now, double lambda) {
+            return value * Math.exp(-lambda * Math.max(0, now - at));
+        }
+
+        /**
+         * Clave de orden independiente del momento de la consulta; solo crece con cada evento.
+         */
+        double key(double lambda, long origin) {
+            return Math.log(value) + lambda * (at - origin);
+        }
+    }
+
+    private record Ranked(long artworkId, double key) {
+    }
+
+    /**
+     * Las K obras con mayor clave, en un árbol ordenado que hace de montículo acotado:
+     * el peor se expulsa cuando entra uno mejor.
+     */
+    private static final class Board {
+
+        private static final Comparator<Ranked> BY_KEY_DESC = Comparator
+                .comparingDouble(Ranked::key).reversed()
+                .thenComparingLong(Ranked::artworkId);
+
+        final int capacity;
+        final TreeSet<Ranked> ranking = new TreeSet<>(BY_KEY_DESC);
+        final Map<Long, Double> keys = new HashMap<>();
+
+        Board(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized void offer(long artworkId, double key) {
+            Double current = keys.get(artworkId);
+            if (current != null) {
+                // Las claves solo crecen: una oferta menor es de un hilo que llegó tarde
+                if (current >= key) {
+                    return;
+                }
+                ranking.remove(new Ranked(artworkId, current));
+            } else if (keys.size() >= capacity) {
+                Ranked worst = ranking.last();
+                if (worst.key() >= key) {
+                    return;
+                }
+                ranking.pollLast();
+                keys.remove(worst.artworkId());
+            }
+            ranking.add(new Ranked(artworkId, key));
+            keys.put(artworkId, key);
+        }
+
+        synchronized void remove(long artworkId) {
+            Double current = keys.remove(artworkId);
+            if (current != null) {
+                ranking.remove(new Ranked(artworkId, current));
+            }
+        }
+
+        synchronized List<Long> top(int limit) {
+            List<Long> ids = new ArrayList<>(Math.min(limit, ranking.size()));
+            for (Ranked ranked : ranking) {
+                if (ids.size() >= limit) {
+                    break;
+                }
+                ids.add(ranked.artworkId());
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.tokapuart.service;
+
+import com.tokapuart.model.ViewerSketch;
+import com.tokapuart.util.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Visitantes distintos por obra y por artista con sketches HyperLogLog.
+ * Cada vista añade el hash del visitante (id de usuario o huella del cliente) a un sketch
+ * en memoria; periódicamente se fusionan con los guardados en viewer_sketches y la
+ * estimación por obra se copia a artworks.unique_viewers, así los listados no leen sketches.
+ * Las estimaciones van por detrás de las vistas como mucho un intervalo de volcado.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ArtworkUniqueViewers {
+
+    private static final int FLUSH_CHUNK = 200;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO viewer_sketches (scope, owner_id, sketch, updated_at) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE sketch = VALUES(sketch), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    /**
+     * visitorKey identifica al visitante ("u:<id>" o una huella anónima); solo se guarda su hash.
+     */
+    public void record(Long artworkId, String visitorKey) {
+        long hash = HyperLogLog.hash(visitorKey);
+        // compute bloquea la entrada: un volcado nunca se lleva un sketch a medio escribir
+        pending.compute(artworkId, (id, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog();
+            target.addHash(hash);
+            return target;
+        });
+    }
+
+    /**
+     * Visitantes distintos de todas las obras del artista, según el último volcado.
+     */
+    public long estimateForArtist(Long userId) {
+        List<byte[]> sketches = jdbcTemplate.query(
+                "SELECT sketch FROM viewer_sketches WHERE scope = ? AND owner_id = ?",
+                (rs, i) -> rs.getBytes(1),
+                ViewerSketch.Scope.ARTIST.name(), userId);
+        return sketches.isEmpty() ? 0 : HyperLogLog.fromBytes(sketches.get(0)).estimate();
+    }
+
+    public void delete(Long artworkId) {
+        pending.remove(artworkId);
+        jdbcTemplate.update("DELETE FROM viewer_sketches WHERE scope = ? AND owner_id = ?",
+                ViewerSketch.Scope.ARTWORK.name(), artworkId);
+    }
+
+    @Scheduled(fixedDelayString = "${artworks.views.unique-flush-interval-ms:30000}")
+    public synchronized void flush() {
+        List<Long> ids = new ArrayList<>(pending.keySet());
+        ids.sort(null);
+        for (int from = 0; from < ids.size(); from += FLUSH_CHUNK) {
+            Map<Long, HyperLogLog> chunk = new HashMap<>();
+            for (Long id : ids.subList(from, Math.min(from + FLUSH_CHUNK, ids.size()))) {
+                HyperLogLog sketch = pending.remove(id);
+                if (sketch != null) {
+                    chunk.put(id, sketch);
+                }
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> flushChunk(chunk));
+            } catch (Exception e) {
+                // Devolver los sketches para reintentarlos en el siguiente ciclo
+                chunk.forEach((id, sketch) -> pending.merge(id, sketch, (current, returned) -> {
+                    current.merge(returned);
+                    return current;
+                }));
+                log.error("Error al volcar visitantes únicos: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+    private void flushChunk(Map<Long, HyperLogLog> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        String placeholders = chunk.keySet().stream().map(id -> "?").collect(Collectors.joining(", "));
+
+        // Las obras borradas desaparecen aquí y sus sketches pendientes se descartan
+        Map<Long, Long> artistByArtwork = new HashMap<>();
+        jdbcTemplate.query("SELECT id, user_id FROM artworks WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    artistByArtwork.put(rs.getLong(1), rs.getLong(2));
+                },
+                chunk.keySet().toArray());
+
+        Map<Long, HyperLogLog> byArtist = new HashMap<>();
+        artistByArtwork.forEach((artworkId, artistId) ->
+                byArtist.computeIfAbsent(artistId, id -> new HyperLogLog()).merge(chunk.get(artworkId)));
+
+        Map<Long, HyperLogLog> artworks = mergeStored(ViewerSketch.Scope.ARTWORK, artistByArtwork.keySet().stream()
+                .collect(Collectors.toMap(id -> id, chunk::get)));
+        Map<Long, HyperLogLog> artists = mergeStored(ViewerSketch.Scope.ARTIST, byArtist);
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> estimates = new ArrayList<>();
+        artworks.forEach((id, sketch) -> {
+            upserts.add(new Object[]{ViewerSketch.Scope.ARTWORK.name(), id, sketch.toBytes(), now});
+            estimates.add(new Object[]{sketch.estimate(), id});
+        });
+        artists.forEach((id, sketch) ->
+                upserts.add(new Object[]{ViewerSketch.Scope.ARTIST.name(), id, sketch.toBytes(), now}));
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, upserts);
+        jdbcTemplate.batchUpdate("UPDATE artworks SET unique_viewers = ? WHERE id = ?", estimates);
+        log.debug("Visitantes únicos volcados para {} obras de {} artistas", artworks.size(), artists.size());
+    }
+
+    /**
+     * Fusiona los sketches nuevos con los guardados, bloqueando las filas existentes hasta el commit.
+     */
+    private Map<Long, HyperLogLog> mergeStored(ViewerSketch.Scope scope, Map<Long, HyperLogLog> fresh) {
+        if (fresh.isEmpty()) {
+            return fresh;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(scope.name());
+        args.addAll(fresh.keySet());
+        String placeholders = fresh.keySet().stream().map(id -> "?").collect(Collectors.joining(", "));
+        jdbcTemplate.query(
+                "SELECT owner_id, sketch FROM viewer_sketches WHERE scope = ? AND owner_id IN (" + placeholders + ") " +
+                "ORDER BY owner_id FOR UPDATE",
+                rs -> {
+                    fresh.get(rs.getLong(1)).merge(HyperLogLog.fromBytes(rs.getBytes(2)));
+                },
+                args.toArray());
+        return fresh;
+    }
+}
@@ -0,0 +1,95 @@
+package com.tokapuart.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador de vistas con escritura diferida.
+ * Cada vista solo incrementa un LongAdder en memoria; periódicamente los deltas se
+ * vuelcan con un UPDATE relativo por lotes, sin leer ni reescribir la fila completa.
+ * Los acumuladores que pasan un ciclo sin vistas se eliminan, así el mapa solo guarda las
+ * obras vistas recientemente.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ArtworkViewCounter {
+
+    private static final String FLUSH_SQL =
+            "UPDATE artworks SET views_count = COALESCE(views_count, 0) + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    public void record(Long artworkId) {
+        LongAdder adder = pendingViews.computeIfAbsent(artworkId, id -> new LongAdder());
+        adder.increment();
+        if (pendingViews.get(artworkId) != adder) {
+            // flush retiró el acumulador entre la búsqueda y el incremento: pasar la vista al actual
+            long orphaned = adder.sumThenReset();
+            if (orphaned > 0) {
+                pendingViews.computeIfAbsent(artworkId, id -> new LongAdder()).add(orphaned);
+            }
+        }
+    }
+
+    /**
+     * Vistas registradas que todavía no se han volcado a la base de datos.
+     */
+    public long pending(Long artworkId) {
+        LongAdder adder = pendingViews.get(artworkId);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    @Scheduled(fixedDelayString = "${artworks.views.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        pendingViews.forEach((artworkId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                batch.add(new Object[]{delta, artworkId});
+            } else if (pendingViews.remove(artworkId, adder)) {
+                // Sin vistas desde el último volcado. Una vista que llegó entre el reinicio y el
+                // borrado la recupera esta lectura o la comprobación de record
+                long late = adder.sumThenReset();
+                if (late > 0) {
+                    pendingViews.computeIfAbsent(artworkId, id -> new LongAdder()).add(late);
+                }
+            }
+        });
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            // En una transacción: si el lote falla a medias no queda nada aplicado y los deltas
+            // devueltos no se cuentan dos veces
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+            log.debug("Vistas volcadas para {} obras", batch.size());
+        } catch (Exception e) {
+            // Devolver los deltas al acumulador para reintentarlos en el siguiente ciclo
+            for (Object[] row : batch) {
+                pendingViews.computeIfAbsent((Long) row[1], id -> new LongAdder()).add((Long) row[0]);
+            }
+            log.error("Error al volcar contadores de vistas: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+}
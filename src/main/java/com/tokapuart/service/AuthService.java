@@ -3,10 +3,12 @@ package com.tokapuart.service;
 import com.tokapuart.dto.AuthRequest;
 import com.tokapuart.dto.AuthResponse;
 import com.tokapuart.dto.RegisterRequest;
+import com.tokapuart.event.UserRegisteredEvent;
 import com.tokapuart.model.User;
 import com.tokapuart.repository.UserRepository;
 import com.tokapuart.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -24,6 +26,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -48,6 +51,7 @@ public class AuthService {
                 .build();
 
         user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getUsername()));
 
         // Generar JWT token
         String token = jwtUtil.generateToken(user.getEmail(), user.getId());
@@ -0,0 +1,125 @@
+package com.tokapuart.service;
+
+import com.tokapuart.event.ArtworkChangedEvent;
+import com.tokapuart.util.TimeOrderedIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Obras aprobadas de cada autor, de la más reciente a la más antigua, como listas
+ * inmutables de (createdAt, id). Son las fuentes que el feed de seguidos mezcla.
+ * Se carga al arrancar, se mantiene con los eventos de ArtworkService y se reconstruye
+ * periódicamente por si otra instancia modificó obras.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthorTimelineIndex {
+
+    private static final int LOAD_CHUNK = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Map<Long, TimeOrderedIds> byAuthor = new ConcurrentHashMap<>();
+
+    // Cambios recibidos durante una reconstrucción, para aplicarlos también al estado nuevo
+    private List<ArtworkChangedEvent> replay;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${feed.authors.rebuild-interval-ms:900000}",
+               initialDelayString = "${feed.authors.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        try {
+            Map<Long, Pairs> loading = new HashMap<>();
+            long[] lastId = {0};
+            int[] rows = new int[1];
+            do {
+                rows[0] = 0;
+                jdbcTemplate.query(
+                        "SELECT id, user_id, created_at FROM artworks WHERE status = 'APPROVED' AND id > ? " +
+                        "ORDER BY id LIMIT " + LOAD_CHUNK,
+                        rs -> {
+                            lastId[0] = rs.getLong(1);
+                            Timestamp createdAt = rs.getTimestamp(3);
+                            if (createdAt != null) {
+                                loading.computeIfAbsent(rs.getLong(2), id -> new Pairs())
+                                        .add(TimeOrderedIds.toMicros(createdAt.toLocalDateTime()), lastId[0]);
+                            }
+                            rows[0]++;
+                        },
+                        lastId[0]);
+            } while (rows[0] == LOAD_CHUNK);
+
+            Map<Long, TimeOrderedIds> fresh = new ConcurrentHashMap<>(Math.max(16, loading.size() * 4 / 3));
+            loading.forEach((authorId, pairs) -> fresh.put(authorId, TimeOrderedIds.of(pairs.times, pairs.ids, pairs.size)));
+            synchronized (this) {
+                replay.forEach(event -> apply(fresh, event));
+                byAuthor = fresh;
+            }
+            log.info("Índice de obras por autor cargado con {} autores", fresh.size());
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onArtworkChanged(ArtworkChangedEvent event) {
+        apply(byAuthor, event);
+        if (replay != null) {
+            replay.add(event);
+        }
+    }
+
+    /**
+     * Obras aprobadas del autor, de la más reciente a la más antigua.
+     */
+    public TimeOrderedIds timeline(long authorId) {
+        return byAuthor.getOrDefault(authorId, TimeOrderedIds.EMPTY);
+    }
+
+    private static void apply(Map<Long, TimeOrderedIds> index, ArtworkChangedEvent event) {
+        if (event.isVisible() && event.createdAt() != null) {
+            index.compute(event.userId(), (id, timeline) -> (timeline != null ? timeline : TimeOrderedIds.EMPTY)
+                    .with(TimeOrderedIds.toMicros(event.createdAt()), event.artworkId(), Integer.MAX_VALUE));
+        } else {
+            index.computeIfPresent(event.userId(), (id, timeline) -> {
+                TimeOrderedIds remaining = timeline.without(event.artworkId());
+                return remaining.size() > 0 ? remaining : null;
+            });
+        }
+    }
+
+    private static final class Pairs {
+        long[] times = new long[4];
+        long[] ids = new long[4];
+        int size;
+
+        void add(long time, long id) {
+            if (size == ids.length) {
+                times = Arrays.copyOf(times, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            times[size] = time;
+            ids[size++] = id;
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package com.tokapuart.service;
 
+import com.tokapuart.dto.CommentPage;
 import com.tokapuart.dto.CommentRequest;
 import com.tokapuart.dto.CommentResponse;
+import com.tokapuart.dto.UserSummary;
+import com.tokapuart.event.InteractionChangedEvent;
 import com.tokapuart.model.Artwork;
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
 import com.tokapuart.model.Comment;
 import com.tokapuart.model.User;
+import com.tokapuart.model.UserStats.StatType;
 import com.tokapuart.repository.ArtworkRepository;
 import com.tokapuart.repository.CommentRepository;
 import com.tokapuart.repository.UserRepository;
+import com.tokapuart.util.FeedCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +32,11 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final ArtworkRepository artworkRepository;
     private final UserRepository userRepository;
+    private final ArtworkCounterService artworkCounterService;
+    private final UserStatsService userStatsService;
+    private final UserSummaryCache userSummaryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageSizes pageSizes;
 
     @Transactional
     public CommentResponse addComment(Long artworkId, CommentRequest request, Long userId) {
@@ -38,15 +53,65 @@ public class CommentService {
                 .build();
 
         comment = commentRepository.save(comment);
+        artworkCounterService.increment(artworkId, CounterType.COMMENTS, 1);
+        userStatsService.increment(userId, StatType.COMMENTS, 1);
+        eventPublisher.publishEvent(InteractionChangedEvent.comment(userId, artworkId));
 
-        return mapToResponse(comment);
+        return mapToResponse(comment, UserSummary.of(user));
     }
 
+    /**
+     * Hilo de comentarios paginado por (createdAt, id), del más reciente al más antiguo.
+     * Con since devuelve solo los posteriores a ese cursor, del más antiguo al más reciente,
+     * para que el cliente sondee los nuevos. El total sale de commentsCount, no de un COUNT.
+     * La primera página de un hilo vacío trae como newestCursor el inicio, así el sondeo
+     * recibe también el primer comentario.
+     */
     @Transactional(readOnly = true)
-    public List<CommentResponse> getCommentsByArtworkId(Long artworkId) {
-        return commentRepository.findByArtworkIdOrderByCreatedAtDesc(artworkId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public CommentPage getCommentsByArtworkId(Long artworkId, String cursor, String since, Integer size) {
+        if (!artworkRepository.existsById(artworkId)) {
+            throw new RuntimeException("Obra no encontrada");
+        }
+        long total = artworkCounterService.currentCounts(artworkId)[CounterType.COMMENTS.ordinal()];
+        int pageSize = pageSizes.resolve(size);
+
+        boolean polling = since != null && !since.isBlank();
+        FeedCursor from = FeedCursor.decode(polling ? since : cursor);
+        List<Comment> comments = polling
+                ? commentRepository.findByArtworkIdNewerThan(artworkId, from.createdAt(), from.id(), PageRequest.of(0, pageSize + 1))
+                : commentRepository.findByArtworkIdPage(artworkId, from.createdAt(), from.id(), PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = comments.size() > pageSize;
+        List<Comment> page = hasMore ? comments.subList(0, pageSize) : comments;
+
+        String nextCursor = null;
+        boolean firstPage = cursor == null || cursor.isBlank();
+        String newestCursor = polling ? since : firstPage ? FeedCursor.BEGINNING.encode() : null;
+        if (!page.isEmpty()) {
+            Comment first = page.get(0);
+            Comment last = page.get(page.size() - 1);
+            nextCursor = hasMore ? cursorOf(last) : null;
+            // Sin since, el primero de la primera página es el más reciente; con since, el último
+            if (polling) {
+                newestCursor = cursorOf(last);
+            } else if (firstPage) {
+                newestCursor = cursorOf(first);
+            }
+        }
+
+        // Los comentarios solo traen el id del autor; nombre y foto salen de la caché
+        Set<Long> userIds = page.stream().map(comment -> comment.getUser().getId()).collect(Collectors.toSet());
+        Map<Long, UserSummary> users = userSummaryCache.getAll(userIds);
+
+        return CommentPage.builder()
+                .items(page.stream()
+                        .map(comment -> mapToResponse(comment, users.get(comment.getUser().getId())))
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .totalCount(total)
+                .newestCursor(newestCursor)
+                .build();
     }
 
     @Transactional
@@ -59,16 +124,22 @@ public class CommentService {
         }
 
         commentRepository.delete(comment);
+        artworkCounterService.increment(comment.getArtwork().getId(), CounterType.COMMENTS, -1);
+        userStatsService.increment(userId, StatType.COMMENTS, -1);
+    }
+
+    private static String cursorOf(Comment comment) {
+        return new FeedCursor(comment.getCreatedAt(), comment.getId()).encode();
     }
 
-    private CommentResponse mapToResponse(Comment comment) {
+    private CommentResponse mapToResponse(Comment comment, UserSummary user) {
         return CommentResponse.builder()
                 .id(comment.getId())
                 .artworkId(comment.getArtwork().getId())
                 .userId(comment.getUser().getId())
-                .username(comment.getUser().getUsername())
-                .userFullName(comment.getUser().getFullName())
-                .userPhotoUrl(comment.getUser().getProfilePhotoUrl())
+                .username(user != null ? user.username() : null)
+                .userFullName(user != null ? user.fullName() : null)
+                .userPhotoUrl(user != null ? user.profilePhotoUrl() : null)
                 .commentText(comment.getCommentText())
                 .createdAt(comment.getCreatedAt())
                 .updatedAt(comment.getUpdatedAt())
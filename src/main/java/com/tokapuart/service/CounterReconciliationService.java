@@ -0,0 +1,202 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.CounterReconciliationReport;
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
+import com.tokapuart.model.ArtworkReaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Recalcula los contadores desnormalizados de artworks a partir de las tablas de origen
+ * (favorites, comments, artwork_reactions) por tramos de ids, con una consulta agrupada
+ * por tipo de contador y actualizaciones por lotes. Las vistas no tienen tabla de origen:
+ * solo se corrigen los NULL.
+ * Cada corrección es condicional a que la columna no haya cambiado desde que se leyó, así
+ * no pisa incrementos concurrentes; esas filas se cuentan como omitidas.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CounterReconciliationService {
+
+    private static final CounterType[] TYPES = CounterType.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArtworkCounterService artworkCounterService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${artworks.counters.reconcile.chunk-size:1000}")
+    private int chunkSize;
+
+    private volatile CounterReconciliationReport lastReport;
+
+    @Scheduled(cron = "${artworks.counters.reconcile.cron:0 30 4 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("Error en la reconciliación de contadores: {}", e.getMessage());
+        }
+    }
+
+    public CounterReconciliationReport reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay una reconciliación de contadores en curso");
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long start = System.currentTimeMillis();
+            Totals totals = new Totals();
+
+            Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM artworks");
+            if (range.get("min_id") != null) {
+                long maxId = ((Number) range.get("max_id")).longValue();
+                for (long from = ((Number) range.get("min_id")).longValue(); from <= maxId; from += chunkSize) {
+                    long chunkFrom = from;
+                    transactionTemplate.executeWithoutResult(status -> reconcileChunk(chunkFrom, chunkFrom + chunkSize, totals));
+                }
+            }
+
+            CounterReconciliationReport report = totals.toReport(startedAt, System.currentTimeMillis() - start);
+            lastReport = report;
+            log.info("Reconciliación de contadores: {} obras revisadas, deriva {}", report.getArtworksChecked(),
+                    report.getCounters().entrySet().stream()
+                            .filter(entry -> entry.getValue().getDrifted() > 0)
+                            .map(entry -> entry.getKey() + "=" + entry.getValue().getDrifted())
+                            .collect(Collectors.joining(", ", "[", "]")));
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public CounterReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    private void reconcileChunk(long from, long to, Totals totals) {
+        // 1. Valores guardados (antes que los fragmentos y los agregados, ver clase)
+        String columns = Arrays.stream(TYPES).map(CounterType::column).collect(Collectors.joining(", "));
+        Map<Long, Long[]> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT id, " + columns + " FROM artworks WHERE id >= ? AND id < ?",
+                rs -> {
+                    Long[] values = new Long[TYPES.length];
+                    for (int t = 0; t < TYPES.length; t++) {
+                        long value = rs.getLong(t + 2);
+                        values[t] = rs.wasNull() ? null : value;
+                    }
+                    stored.put(rs.getLong(1), values);
+                },
+                from, to);
+        if (stored.isEmpty()) {
+            return;
+        }
+        totals.artworksChecked += stored.size();
+
+        // 2. Deltas aún en fragmentos: la columna debe valer el agregado menos lo pendiente
+        Map<Long, long[]> pending = artworkCounterService.pendingDeltasBetween(from, to);
+
+        // 3. Agregados de las tablas de origen
+        Map<Long, long[]> actual = new HashMap<>();
+        countInto(actual, CounterType.FAVORITES,
+                "SELECT artwork_id, COUNT(*) FROM favorites WHERE artwork_id >= ? AND artwork_id < ? GROUP BY artwork_id",
+                from, to);
+        countInto(actual, CounterType.COMMENTS,
+                "SELECT artwork_id, COUNT(*) FROM comments WHERE artwork_id >= ? AND artwork_id < ? GROUP BY artwork_id",
+                from, to);
+        jdbcTemplate.query(
+                "SELECT artwork_id, reaction_type, COUNT(*) FROM artwork_reactions " +
+                "WHERE artwork_id >= ? AND artwork_id < ? GROUP BY artwork_id, reaction_type",
+                rs -> {
+                    CounterType type = CounterType.of(ArtworkReaction.ReactionType.valueOf(rs.getString(2)));
+                    actual.computeIfAbsent(rs.getLong(1), id -> new long[TYPES.length])[type.ordinal()] = rs.getLong(3);
+                },
+                from, to);
+
+        // 4. Correcciones condicionales, un lote por contador
+        Map<CounterType, List<Object[]>> corrections = new EnumMap<>(CounterType.class);
+        stored.forEach((artworkId, values) -> {
+            long[] counts = actual.getOrDefault(artworkId, new long[TYPES.length]);
+            long[] deltas = pending.getOrDefault(artworkId, new long[TYPES.length]);
+            for (CounterType type : TYPES) {
+                Long current = values[type.ordinal()];
+                long expected = type == CounterType.VIEWS
+                        ? (current != null ? current : 0)
+                        : counts[type.ordinal()] - deltas[type.ordinal()];
+                if (current == null || current != expected) {
+                    totals.drifted[type.ordinal()]++;
+                    totals.absoluteDrift[type.ordinal()] += Math.abs(expected - (current != null ? current : 0));
+                    corrections.computeIfAbsent(type, t -> new ArrayList<>())
+                            .add(new Object[]{expected, artworkId, current != null ? current : -1L});
+                }
+            }
+        });
+
+        corrections.forEach((type, batch) -> {
+            int[] results = jdbcTemplate.batchUpdate(
+                    "UPDATE artworks SET " + type.column() + " = ? WHERE id = ? AND COALESCE(" + type.column() + ", -1) = ?",
+                    batch);
+            for (int result : results) {
+                if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                    totals.corrected[type.ordinal()]++;
+                } else {
+                    totals.skipped[type.ordinal()]++;
+                }
+            }
+        });
+
+        jdbcTemplate.update("UPDATE artworks SET validation_score = 0 WHERE validation_score IS NULL AND id >= ? AND id < ?", from, to);
+    }
+
+    private void countInto(Map<Long, long[]> actual, CounterType type, String sql, long from, long to) {
+        jdbcTemplate.query(sql,
+                rs -> {
+                    actual.computeIfAbsent(rs.getLong(1), id -> new long[TYPES.length])[type.ordinal()] = rs.getLong(2);
+                },
+                from, to);
+    }
+
+    private static final class Totals {
+        int artworksChecked;
+        final int[] drifted = new int[TYPES.length];
+        final long[] absoluteDrift = new long[TYPES.length];
+        final int[] corrected = new int[TYPES.length];
+        final int[] skipped = new int[TYPES.length];
+
+        CounterReconciliationReport toReport(LocalDateTime startedAt, long durationMs) {
+            Map<CounterType, CounterReconciliationReport.CounterDrift> counters = new EnumMap<>(CounterType.class);
+            for (CounterType type : TYPES) {
+                counters.put(type, CounterReconciliationReport.CounterDrift.builder()
+                        .drifted(drifted[type.ordinal()])
+                        .absoluteDrift(absoluteDrift[type.ordinal()])
+                        .corrected(corrected[type.ordinal()])
+                        .skipped(skipped[type.ordinal()])
+                        .build());
+            }
+            return CounterReconciliationReport.builder()
+                    .startedAt(startedAt)
+                    .durationMs(durationMs)
+                    .artworksChecked(artworksChecked)
+                    .counters(counters)
+                    .build();
+        }
+    }
+}
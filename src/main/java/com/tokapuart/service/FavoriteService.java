@@ -1,14 +1,22 @@
 package com.tokapuart.service;
 
 import com.tokapuart.dto.ArtworkResponse;
+import com.tokapuart.dto.CursorPage;
+import com.tokapuart.dto.FavoriteStateResponse;
+import com.tokapuart.event.InteractionChangedEvent;
 import com.tokapuart.model.Artwork;
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
 import com.tokapuart.model.Favorite;
-import com.tokapuart.model.User;
+import com.tokapuart.model.UserStats.StatType;
 import com.tokapuart.repository.ArtworkRepository;
 import com.tokapuart.repository.FavoriteRepository;
-import com.tokapuart.repository.UserRepository;
+import com.tokapuart.util.FeedCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -20,49 +28,118 @@ public class FavoriteService {
 
     private final FavoriteRepository favoriteRepository;
     private final ArtworkRepository artworkRepository;
-    private final UserRepository userRepository;
-    private final ArtworkService artworkService;
+    private final ArtworkResponseAssembler artworkResponseAssembler;
+    private final ArtworkCounterService artworkCounterService;
+    private final UserInteractionCache userInteractionCache;
+    private final UserStatsService userStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageSizes pageSizes;
 
-    @Transactional
+    /**
+     * Obra añadida a favoritos; falla si ya lo estaba.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void addFavorite(Long artworkId, Long userId) {
-        if (favoriteRepository.existsByUserIdAndArtworkId(userId, artworkId)) {
+        if (!setFavorite(artworkId, userId, true).getChanged()) {
             throw new RuntimeException("Esta obra ya está en tus favoritos");
         }
+    }
 
-        Artwork artwork = artworkRepository.findById(artworkId)
-                .orElseThrow(() -> new RuntimeException("Obra no encontrada"));
-
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    /**
+     * Deja la obra en el estado pedido con INSERT IGNORE / DELETE sin cargar entidades, así
+     * que repetir la petición no falla. Devuelve el estado y el contador ya actualizados.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public FavoriteStateResponse setFavorite(Long artworkId, Long userId, boolean favorited) {
+        boolean changed = writeFavorite(artworkId, userId, favorited);
+        // Sin cambios no se ha tocado la obra: quitar un favorito de una obra inexistente es un 404
+        if (!changed && !artworkRepository.existsById(artworkId)) {
+            throw new RuntimeException("Obra no encontrada");
+        }
 
-        Favorite favorite = Favorite.builder()
-                .artwork(artwork)
-                .user(user)
+        long[] counts = artworkCounterService.currentCounts(artworkId);
+        return FavoriteStateResponse.builder()
+                .artworkId(artworkId)
+                .isFavorited(favorited)
+                .changed(changed)
+                .favoritesCount(counts[CounterType.FAVORITES.ordinal()])
                 .build();
-
-        favoriteRepository.save(favorite);
     }
 
-    @Transactional
-    public void removeFavorite(Long artworkId, Long userId) {
-        if (!favoriteRepository.existsByUserIdAndArtworkId(userId, artworkId)) {
-            throw new RuntimeException("Esta obra no está en tus favoritos");
+    /**
+     * Misma secuencia que ReactionService: lectura sin bloqueo, incremento relativo del
+     * contador antes o después de la fila según ArtworkCounterService.incrementBeforeInsert
+     * y escritura que no cambia nada si otra petición del usuario se adelantó. Sin bloqueos
+     * previos de la obra ni del usuario.
+     */
+    private boolean writeFavorite(Long artworkId, Long userId, boolean favorited) {
+        if (favoriteRepository.existsByUserIdAndArtworkId(userId, artworkId) == favorited) {
+            return false;
+        }
+        long delta = favorited ? 1 : -1;
+        boolean countersFirst = artworkCounterService.incrementBeforeInsert();
+        if (countersFirst && !artworkCounterService.increment(artworkId, CounterType.FAVORITES, delta)) {
+            throw new RuntimeException("Obra no encontrada");
+        }
+
+        boolean written;
+        try {
+            written = favorited
+                    ? favoriteRepository.insertIgnore(userId, artworkId) == 1
+                    : favoriteRepository.deleteFavorite(userId, artworkId) > 0;
+        } catch (DataIntegrityViolationException e) {
+            // MySQL ignora la clave foránea con INSERT IGNORE; otros motores la rechazan
+            throw new RuntimeException("Obra no encontrada");
+        }
+        if (!written) {
+            // Otra petición del usuario ya lo dejó así
+            if (countersFirst) {
+                artworkCounterService.increment(artworkId, CounterType.FAVORITES, -delta);
+            }
+            return false;
         }
 
-        favoriteRepository.deleteByUserIdAndArtworkId(userId, artworkId);
+        if (!countersFirst) {
+            artworkCounterService.increment(artworkId, CounterType.FAVORITES, delta);
+        }
+        userStatsService.increment(userId, StatType.FAVORITES, delta);
+        eventPublisher.publishEvent(InteractionChangedEvent.favorite(userId, artworkId, favorited));
+        return true;
     }
 
+    /**
+     * Favoritos del usuario, del más reciente al más antiguo. Una consulta trae la página con
+     * obras y autores y el ensamblador la completa en lote; no registra vistas ni escribe nada.
+     */
     @Transactional(readOnly = true)
-    public List<ArtworkResponse> getFavoritesByUserId(Long userId) {
-        List<Favorite> favorites = favoriteRepository.findByUserId(userId);
+    public CursorPage<ArtworkResponse> getFavoritesByUserId(Long userId, String cursor, Integer size) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = pageSizes.resolve(size);
+        List<Favorite> favorites = favoriteRepository.findByUserIdPage(
+                userId, after.createdAt(), after.id(), PageRequest.of(0, pageSize + 1));
 
-        return favorites.stream()
-                .map(favorite -> artworkService.getArtworkById(favorite.getArtwork().getId(), userId))
+        boolean hasMore = favorites.size() > pageSize;
+        List<Favorite> page = hasMore ? favorites.subList(0, pageSize) : favorites;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Favorite last = page.get(page.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<Artwork> artworks = page.stream()
+                .map(Favorite::getArtwork)
                 .collect(Collectors.toList());
+
+        return CursorPage.<ArtworkResponse>builder()
+                .items(artworkResponseAssembler.toResponses(artworks, userId))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Transactional(readOnly = true)
     public Boolean isFavorite(Long artworkId, Long userId) {
-        return favoriteRepository.existsByUserIdAndArtworkId(userId, artworkId);
+        return userInteractionCache.isFavorited(userId, artworkId);
     }
 }
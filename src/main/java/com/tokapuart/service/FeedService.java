@@ -0,0 +1,254 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.ArtworkResponse;
+import com.tokapuart.dto.CursorPage;
+import com.tokapuart.event.ArtworkChangedEvent;
+import com.tokapuart.event.FollowChangedEvent;
+import com.tokapuart.model.Artwork;
+import com.tokapuart.repository.ArtworkRepository;
+import com.tokapuart.util.FeedCursor;
+import com.tokapuart.util.TimeOrderedIds;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Feed de obras nuevas de los usuarios seguidos.
+ * Por defecto se mezclan al leer (fan-in) las listas por autor de AuthorTimelineIndex:
+ * de cada autor seguido solo se busca su primera obra anterior al cursor, se quedan las
+ * "tamaño de página" cabezas más recientes (ningún otro autor puede aportar a la página)
+ * y se mezclan con un montículo. El montículo y la carga de obras dependen del tamaño de
+ * página, no del número de seguidos.
+ * Quien sigue a muchas cuentas (feed.following.fanout-min-following) pasa a fan-out en
+ * escritura: su timeline acotado se materializa en la primera lectura y cada obra nueva
+ * de un seguido se inserta en él; se descarta al seguir o dejar de seguir a alguien.
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedService {
+
+    private static final Comparator<Head> NEWEST_FIRST = (a, b) ->
+            TimeOrderedIds.compare(b.time(), b.id(), a.time(), a.id());
+
+    private final AuthorTimelineIndex authorTimelineIndex;
+    private final FollowerGraph followerGraph;
+    private final ArtworkRepository artworkRepository;
+    private final ArtworkResponseAssembler artworkResponseAssembler;
+    private final PageSizes pageSizes;
+
+    // Seguidos a partir de los cuales se materializa el timeline; 0 lo desactiva
+    @Value("${feed.following.fanout-min-following:300}")
+    private int fanoutMinFollowing;
+
+    @Value("${feed.following.timeline-size:500}")
+    private int timelineSize;
+
+    @Value("${feed.following.max-timelines:10000}")
+    private int maxTimelines;
+
+    @Value("${feed.following.timeline-ttl-ms:3600000}")
+    private long timelineTtlMs;
+
+    private final ConcurrentHashMap<Long, Timeline> timelines = new ConcurrentHashMap<>();
+
+    @Transactional(readOnly = true)
+    public CursorPage<ArtworkResponse> getFollowingFeed(Long userId, String cursor, Integer size) {
+        FeedCursor after = FeedCursor.decode(cursor);
+        int pageSize = pageSizes.resolve(size);
+
+        TimeOrderedIds entries = read(userId, TimeOrderedIds.toMicros(after.createdAt()), after.id(), pageSize + 1);
+        boolean hasMore = entries.size() > pageSize;
+        int count = Math.min(entries.size(), pageSize);
+
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(entries.id(i));
+        }
+        Map<Long, Artwork> artworksById = ids.isEmpty() ? Map.of() : artworkRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Artwork::getId, Function.identity()));
+
+        // Una obra puede haberse eliminado u ocultado desde que entró en el índice
+        List<Artwork> page = new ArrayList<>(count);
+        for (Long id : ids) {
+            Artwork artwork = artworksById.get(id);
+            if (artwork != null && artwork.getStatus() == Artwork.ArtworkStatus.APPROVED) {
+                page.add(artwork);
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            nextCursor = new FeedCursor(TimeOrderedIds.fromMicros(entries.time(count - 1)), entries.id(count - 1)).encode();
+        }
+        return CursorPage.<ArtworkResponse>builder()
+                .items(artworkResponseAssembler.toResponses(page, userId))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onArtworkChanged(ArtworkChangedEvent event) {
+        if (timelines.isEmpty()) {
+            return;
+        }
+        boolean add = event.isVisible() && event.createdAt() != null;
+        long time = add ? TimeOrderedIds.toMicros(event.createdAt()) : 0;
+        Function<Timeline, Timeline> update = timeline -> add
+                ? timeline.with(time, event.artworkId(), timelineSize)
+                : timeline.without(event.artworkId());
+
+        // Se recorre el lado más pequeño: los seguidores del autor o los timelines materializados
+        long[] followers = followerGraph.followers(event.userId());
+        if (followers.length <= timelines.size()) {
+            for (long followerId : followers) {
+                timelines.computeIfPresent(followerId, (id, timeline) -> update.apply(timeline));
+            }
+        } else {
+            timelines.replaceAll((followerId, timeline) ->
+                    followerGraph.isFollowing(followerId, event.userId()) ? update.apply(timeline) : timeline);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onFollowChanged(FollowChangedEvent event) {
+        timelines.remove(event.followerId());
+    }
+
+    @Scheduled(fixedDelayString = "${feed.following.timeline-ttl-ms:3600000}")
+    public void expireTimelines() {
+        long now = System.currentTimeMillis();
+        timelines.values().removeIf(timeline -> timeline.builtAt() + timelineTtlMs <= now);
+    }
+
+    private TimeOrderedIds read(Long userId, long time, long id, int limit) {
+        Timeline timeline = materialized(userId);
+        if (timeline != null) {
+            int from = timeline.items().firstBefore(time, id);
+            // Pasado el final de un timeline recortado, lo que sigue se mezcla desde los autores
+            if (from + limit <= timeline.items().size() || !timeline.truncated()) {
+                return slice(timeline.items(), from, limit);
+            }
+        }
+        return merge(followerGraph.following(userId), time, id, limit);
+    }
+
+    private Timeline materialized(Long userId) {
+        if (fanoutMinFollowing <= 0 || followerGraph.followingCount(userId) < fanoutMinFollowing) {
+            return null;
+        }
+        Timeline timeline = timelines.get(userId);
+        return timeline != null ? timeline : materialize(userId);
+    }
+
+    // Sincronizado con onArtworkChanged para que una obra publicada mientras se construye no se pierda
+    private synchronized Timeline materialize(Long userId) {
+        Timeline timeline = timelines.get(userId);
+        if (timeline != null || timelines.size() >= maxTimelines) {
+            return timeline;
+        }
+        FeedCursor first = FeedCursor.FIRST;
+        TimeOrderedIds items = merge(followerGraph.following(userId),
+                TimeOrderedIds.toMicros(first.createdAt()), first.id(), timelineSize + 1);
+        boolean truncated = items.size() > timelineSize;
+        timeline = new Timeline(truncated ? slice(items, 0, timelineSize) : items, truncated, System.currentTimeMillis());
+        timelines.put(userId, timeline);
+        return timeline;
+    }
+
+    /**
+     * Las limit obras más recientes anteriores a (time, id) entre las de todos los autores.
+     */
+    private TimeOrderedIds merge(long[] authorIds, long time, long id, int limit) {
+        // 1. Cabeza de cada autor; un montículo de mínimos conserva las limit más recientes
+        PriorityQueue<Head> best = new PriorityQueue<>(limit + 1, NEWEST_FIRST.reversed());
+        for (long authorId : authorIds) {
+            TimeOrderedIds timeline = authorTimelineIndex.timeline(authorId);
+            int position = timeline.firstBefore(time, id);
+            if (position >= timeline.size()) {
+                continue;
+            }
+            Head head = new Head(timeline, position);
+            if (best.size() == limit && NEWEST_FIRST.compare(head, best.peek()) >= 0) {
+                continue;
+            }
+            best.add(head);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        // 2. Mezcla k-way de esas cabezas
+        PriorityQueue<Head> heap = new PriorityQueue<>(Math.max(1, best.size()), NEWEST_FIRST);
+        heap.addAll(best);
+        long[] times = new long[limit];
+        long[] ids = new long[limit];
+        int count = 0;
+        while (count < limit && !heap.isEmpty()) {
+            Head head = heap.poll();
+            times[count] = head.time();
+            ids[count++] = head.id();
+            if (++head.position < head.timeline.size()) {
+                heap.add(head);
+            }
+        }
+        return TimeOrderedIds.of(times, ids, count);
+    }
+
+    private static TimeOrderedIds slice(TimeOrderedIds items, int from, int limit) {
+        int count = Math.max(0, Math.min(limit, items.size() - from));
+        long[] times = new long[count];
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = items.time(from + i);
+            ids[i] = items.id(from + i);
+        }
+        return TimeOrderedIds.of(times, ids, count);
+    }
+
+    /**
+     * Timeline materializado; truncated indica que se descartaron obras más antiguas.
+     */
+    private record Timeline(TimeOrderedIds items, boolean truncated, long builtAt) {
+
+        // Insertar en un timeline lleno descarta la obra más antigua (o la nueva, si es aún más antigua)
+        Timeline with(long time, long id, int maxSize) {
+            return new Timeline(items.with(time, id, maxSize), truncated || items.size() >= maxSize, builtAt);
+        }
+
+        Timeline without(long id) {
+            return new Timeline(items.without(id), truncated, builtAt);
+        }
+    }
+
+    // Posición de lectura en la lista de un autor
+    private static final class Head {
+        final TimeOrderedIds timeline;
+        int position;
+
+        Head(TimeOrderedIds timeline, int position) {
+            this.timeline = timeline;
+            this.position = position;
+        }
+
+        long time() {
+            return timeline.time(position);
+        }
+
+        long id() {
+            return timeline.id(position);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.FollowSuggestionResponse;
+import com.tokapuart.event.FollowChangedEvent;
+import com.tokapuart.model.User;
+import com.tokapuart.repository.UserRepository;
+import com.tokapuart.util.LongIntHashMap;
+import com.tokapuart.util.TextAnalyzer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sugerencias de usuarios a seguir: amigos de amigos sobre FollowerGraph, sin consultas
+ * sobre followers. Se recorren los seguidos de los usuarios que sigues (dos saltos,
+ * acotados por seguido y en total) contando en un mapa primitivo cuántos de tus seguidos
+ * siguen a cada candidato; un montículo acotado se queda con los mejores, que se puntúan
+ * además por vivir en tu misma ciudad. El resultado se guarda por usuario con TTL y LRU,
+ * y se descarta cuando el usuario sigue o deja de seguir a alguien.
+ */
+@Service
+@RequiredArgsConstructor
+public class FollowSuggestionService {
+
+    private static final Comparator<Candidate> BY_SHARED = Comparator
+            .comparingInt(Candidate::shared)
+            .thenComparing(Comparator.comparingLong(Candidate::id).reversed());
+
+    private final FollowerGraph followerGraph;
+    private final UserRepository userRepository;
+
+    @Value("${users.suggestions.default-size:10}")
+    private int defaultSize;
+
+    // Sugerencias que se calculan y se guardan por usuario; también es el máximo de size
+    @Value("${users.suggestions.max-results:50}")
+    private int maxResults;
+
+    // Seguidos del usuario que se recorren como primer salto
+    @Value("${users.suggestions.max-first-hop:200}")
+    private int maxFirstHop;
+
+    // Seguidos de cada uno de ellos que se recorren como segundo salto
+    @Value("${users.suggestions.max-per-first-hop:500}")
+    private int maxPerFirstHop;
+
+    // Tope de aristas recorridas por cálculo
+    @Value("${users.suggestions.max-edges:20000}")
+    private int maxEdges;
+
+    // Lo que vale vivir en la misma ciudad, en seguidos compartidos
+    @Value("${users.suggestions.same-city-weight:2}")
+    private int sameCityWeight;
+
+    @Value("${users.suggestions.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${users.suggestions.ttl-ms:600000}")
+    private long ttlMs;
+
+    // Orden de acceso: el primero es el menos usado
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Transactional(readOnly = true)
+    public List<FollowSuggestionResponse> getSuggestions(Long userId, Integer size) {
+        int limit = size == null || size <= 0 ? Math.min(defaultSize, maxResults) : Math.min(size, maxResults);
+
+        List<Candidate> ranked = cached(userId);
+        if (ranked == null) {
+            long[] following = followerGraph.following(userId);
+            ranked = compute(userId, following);
+            store(userId, following, ranked);
+        }
+
+        // Las que ya sigue (p. ej. por un cambio en otra instancia) no se muestran
+        List<Candidate> page = new ArrayList<>(limit);
+        for (Candidate candidate : ranked) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (!followerGraph.isFollowing(userId, candidate.id())) {
+                page.add(candidate);
+            }
+        }
+        if (page.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, User> usersById = userRepository.findAllById(page.stream().map(Candidate::id).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<FollowSuggestionResponse> suggestions = new ArrayList<>(page.size());
+        for (Candidate candidate : page) {
+            User user = usersById.get(candidate.id());
+            if (user == null) {
+                continue;
+            }
+            suggestions.add(FollowSuggestionResponse.builder()
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .fullName(user.getFullName())
+                    .profilePhotoUrl(user.getProfilePhotoUrl())
+                    .city(user.getCity())
+                    .isArtist(user.getIsArtist())
+                    .sharedFollows(candidate.shared())
+                    .sameCity(candidate.sameCity())
+                    .followsYou(followerGraph.isFollowing(user.getId(), userId))
+                    .build());
+        }
+        return suggestions;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFollowChanged(FollowChangedEvent event) {
+        synchronized (entries) {
+            entries.remove(event.followerId());
+        }
+    }
+
+    /**
+     * Candidatos ordenados por puntuación. Las listas muy largas se recorren a saltos
+     * regulares, así que en cuentas enormes los conteos son una muestra.
+     */
+    private List<Candidate> compute(Long userId, long[] following) {
+        LongIntHashMap shared = new LongIntHashMap(Math.min(maxEdges, 1024));
+        int budget = maxEdges;
+        int firstHopStep = step(following.length, maxFirstHop);
+        for (int i = 0; i < following.length && budget > 0; i += firstHopStep) {
+            long[] theirs = followerGraph.following(following[i]);
+            int secondHopStep = step(theirs.length, Math.min(maxPerFirstHop, budget));
+            for (int j = 0; j < theirs.length && budget > 0; j += secondHopStep) {
+                budget--;
+                long candidate = theirs[j];
+                if (candidate != userId && Arrays.binarySearch(following, candidate) < 0) {
+                    shared.addTo(candidate, 1);
+                }
+            }
+        }
+        if (shared.size() == 0) {
+            return List.of();
+        }
+
+        // Con la bonificación por ciudad, un candidato fuera de los mejores por conteo aún
+        // puede entrar: se deja margen antes de cargar las ciudades
+        int pool = maxResults * (1 + sameCityWeight);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(pool + 1, BY_SHARED);
+        shared.forEach((candidate, count) -> {
+            if (best.size() < pool) {
+                best.add(new Candidate(candidate, count, false));
+            } else if (count > best.peek().shared()
+                    || (count == best.peek().shared() && candidate < best.peek().id())) {
+                best.poll();
+                best.add(new Candidate(candidate, count, false));
+            }
+        });
+
+        String city = userRepository.findById(userId).map(User::getCity).map(FollowSuggestionService::cityKey).orElse(null);
+        Map<Long, String> cities = userRepository.findAllById(best.stream().map(Candidate::id).collect(Collectors.toList()))
+                .stream()
+                .filter(user -> user.getCity() != null)
+                .collect(Collectors.toMap(User::getId, user -> cityKey(user.getCity())));
+
+        List<Candidate> ranked = new ArrayList<>(best.size());
+        for (Candidate candidate : best) {
+            boolean sameCity = city != null && !city.isEmpty() && city.equals(cities.get(candidate.id()));
+            ranked.add(new Candidate(candidate.id(), candidate.shared(), sameCity));
+        }
+        ranked.sort(Comparator.comparingInt((Candidate candidate) -> candidate.score(sameCityWeight)).reversed()
+                .thenComparing(Comparator.comparingInt(Candidate::shared).reversed())
+                .thenComparingLong(Candidate::id));
+        return ranked.size() > maxResults ? List.copyOf(ranked.subList(0, maxResults)) : List.copyOf(ranked);
+    }
+
+    private List<Candidate> cached(Long userId) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() <= now) {
+                entries.remove(userId);
+                return null;
+            }
+            return entry.ranked();
+        }
+    }
+
+    /**
+     * Solo se guarda si los seguidos no cambiaron durante el cálculo: el grafo publica un
+     * array nuevo en cada cambio, y así un cálculo lento no pisa una invalidación.
+     */
+    private void store(Long userId, long[] following, List<Candidate> ranked) {
+        synchronized (entries) {
+            if (followerGraph.following(userId) != following) {
+                return;
+            }
+            entries.put(userId, new Entry(ranked, System.currentTimeMillis() + ttlMs));
+            if (entries.size() > maxUsers) {
+                Iterator<Entry> eldest = entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    // Paso para recorrer como mucho limit elementos de una lista de length, repartidos por toda ella
+    private static int step(int length, int limit) {
+        return limit <= 0 || length <= limit ? 1 : (length + limit - 1) / limit;
+    }
+
+    private static String cityKey(String city) {
+        return TextAnalyzer.fold(city).trim();
+    }
+
+    private record Candidate(long id, int shared, boolean sameCity) {
+
+        int score(int sameCityWeight) {
+            return shared + (sameCity ? sameCityWeight : 0);
+        }
+    }
+
+    private record Entry(List<Candidate> ranked, long expiresAt) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.tokapuart.service;
+
+import com.tokapuart.event.FollowChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Grafo de seguidores en memoria: por usuario, un array ordenado de long con los ids que
+ * sigue y otro con sus seguidores. Los arrays no se modifican una vez publicados (cada
+ * cambio copia el array afectado), así las lecturas no bloquean: comprobar si A sigue a B
+ * es una búsqueda binaria y los conteos son longitudes.
+ * Se carga al arrancar, se mantiene con los eventos de UserService tras el commit y se
+ * reconstruye periódicamente por si otra instancia cambió seguimientos.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FollowerGraph {
+
+    private static final long[] EMPTY = new long[0];
+    private static final int LOAD_CHUNK = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile State state = new State(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+
+    // Cambios recibidos durante una reconstrucción, para aplicarlos también al estado nuevo
+    private List<FollowChangedEvent> replay;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${users.graph.rebuild-interval-ms:900000}",
+               initialDelayString = "${users.graph.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        synchronized (this) {
+            replay = new ArrayList<>();
+        }
+        try {
+            Map<Long, Growable> following = new HashMap<>();
+            Map<Long, Growable> followers = new HashMap<>();
+            long[] lastId = {0};
+            int loaded;
+            do {
+                int[] rows = {0};
+                jdbcTemplate.query(
+                        "SELECT id, follower_id, following_id FROM followers WHERE id > ? ORDER BY id LIMIT " + LOAD_CHUNK,
+                        rs -> {
+                            lastId[0] = rs.getLong(1);
+                            long follower = rs.getLong(2);
+                            long followed = rs.getLong(3);
+                            following.computeIfAbsent(follower, id -> new Growable()).add(followed);
+                            followers.computeIfAbsent(followed, id -> new Growable()).add(follower);
+                            rows[0]++;
+                        },
+                        lastId[0]);
+                loaded = rows[0];
+            } while (loaded == LOAD_CHUNK);
+
+            State fresh = new State(freeze(following), freeze(followers));
+            synchronized (this) {
+                replay.forEach(fresh::apply);
+                state = fresh;
+            }
+            log.info("Grafo de seguidores cargado: {} usuarios siguen a alguien, {} tienen seguidores",
+                    fresh.following.size(), fresh.followers.size());
+        } finally {
+            synchronized (this) {
+                replay = null;
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onFollowChanged(FollowChangedEvent event) {
+        state.apply(event);
+        if (replay != null) {
+            replay.add(event);
+        }
+    }
+
+    public boolean isFollowing(Long followerId, Long followingId) {
+        if (followerId == null || followingId == null) {
+            return false;
+        }
+        return Arrays.binarySearch(state.following.getOrDefault(followerId, EMPTY), followingId) >= 0;
+    }
+
+    /**
+     * Se siguen el uno al otro.
+     */
+    public boolean isMutual(Long userId, Long otherId) {
+        return isFollowing(userId, otherId) && isFollowing(otherId, userId);
+    }
+
+    public int followingCount(Long userId) {
+        return state.following.getOrDefault(userId, EMPTY).length;
+    }
+
+    public int followersCount(Long userId) {
+        return state.followers.getOrDefault(userId, EMPTY).length;
+    }
+
+    /**
+     * Ids que sigue el usuario, ordenados de menor a mayor. El array es compartido: no modificarlo.
+     */
+    public long[] following(Long userId) {
+        return state.following.getOrDefault(userId, EMPTY);
+    }
+
+    /**
+     * Seguidores del usuario, ordenados de menor a mayor. El array es compartido: no modificarlo.
+     */
+    public long[] followers(Long userId) {
+        return state.followers.getOrDefault(userId, EMPTY);
+    }
+
+    /**
+     * Hasta limit ids de la lista con id mayor que afterId (null para empezar por el principio).
+     */
+    public static long[] page(long[] ids, Long afterId, int limit) {
+        int from = 0;
+        if (afterId != null) {
+            int index = Arrays.binarySearch(ids, afterId);
+            from = index >= 0 ? index + 1 : -index - 1;
+        }
+        return Arrays.copyOfRange(ids, from, Math.min(ids.length, from + limit));
+    }
+
+    private static Map<Long, long[]> freeze(Map<Long, Growable> lists) {
+        Map<Long, long[]> frozen = new ConcurrentHashMap<>(Math.max(16, lists.size() * 4 / 3));
+        lists.forEach((userId, list) -> {
+            long[] ids = Arrays.copyOf(list.values, list.size);
+            Arrays.sort(ids);
+            frozen.put(userId, ids);
+        });
+        return frozen;
+    }
+
+    private record State(Map<Long, long[]> following, Map<Long, long[]> followers) {
+
+        void apply(FollowChangedEvent event) {
+            if (event.following()) {
+                following.compute(event.followerId(), (id, ids) -> with(ids, event.followingId()));
+                followers.compute(event.followingId(), (id, ids) -> with(ids, event.followerId()));
+            } else {
+                following.computeIfPresent(event.followerId(), (id, ids) -> without(ids, event.followingId()));
+                followers.computeIfPresent(event.followingId(), (id, ids) -> without(ids, event.followerId()));
+            }
+        }
+
+        // Copia ordenada con value añadido; la misma si ya estaba
+        private static long[] with(long[] ids, long value) {
+            if (ids == null) {
+                return new long[]{value};
+            }
+            int index = Arrays.binarySearch(ids, value);
+            if (index >= 0) {
+                return ids;
+            }
+            int insertion = -index - 1;
+            long[] copy = new long[ids.length + 1];
+            System.arraycopy(ids, 0, copy, 0, insertion);
+            copy[insertion] = value;
+            System.arraycopy(ids, insertion, copy, insertion + 1, ids.length - insertion);
+            return copy;
+        }
+
+        // Copia sin value; null (quita la entrada) si queda vacía
+        private static long[] without(long[] ids, long value) {
+            int index = Arrays.binarySearch(ids, value);
+            if (index < 0) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] copy = new long[ids.length - 1];
+            System.arraycopy(ids, 0, copy, 0, index);
+            System.arraycopy(ids, index + 1, copy, index, ids.length - index - 1);
+            return copy;
+        }
+    }
+
+    private static final class Growable {
+        long[] values = new long[4];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
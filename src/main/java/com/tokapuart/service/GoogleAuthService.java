@@ -5,12 +5,14 @@ import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
 import com.tokapuart.dto.AuthResponse;
+import com.tokapuart.event.UserRegisteredEvent;
 import com.tokapuart.model.User;
 import com.tokapuart.repository.UserRepository;
 import com.tokapuart.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +29,7 @@ public class GoogleAuthService {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${google.client.id:YOUR_GOOGLE_CLIENT_ID}")
     private String googleClientId;
@@ -103,6 +106,8 @@ public class GoogleAuthService {
                 .isPublic(true)
                 .build();
 
-        return userRepository.save(user);
+        user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserRegisteredEvent(user.getId(), user.getUsername()));
+        return user;
     }
 }
@@ -0,0 +1,72 @@
+package com.tokapuart.service;
+
+import com.tokapuart.model.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Alinea id_generators con los ids que ya existen antes de que Hibernate reserve bloques.
+ * Las tablas que venían de AUTO_INCREMENT no tienen fila en id_generators (o la tienen
+ * atrasada si se aplicó V8 y después se insertó algo con la versión anterior): sin esto
+ * el primer bloque empezaría en 1 y chocaría con las claves existentes. Solo sube los
+ * valores, así que es seguro con otras instancias ya reservando bloques.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorAligner {
+
+    // Segmento de id_generators = tabla de la entidad
+    private static final List<String> TABLES = List.of(
+            "users", "artworks", "comments", "artwork_photos", "followers", "validations");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        for (String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // Con next_val = v el siguiente bloque es [v + 2 - ALLOCATION_SIZE, v + 1]: debe empezar después de maxId
+            long floor = maxId + IdGenerators.ALLOCATION_SIZE - 1;
+            int updated = raise(table, floor);
+            if (updated == 0) {
+                insertIfMissing(table, floor);
+            } else {
+                log.info("Generador de ids de {} adelantado a {}", table, floor);
+            }
+        }
+    }
+
+    private void insertIfMissing(String table, long floor) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + IdGenerators.TABLE + " WHERE " + IdGenerators.SEGMENT_COLUMN + " = ?",
+                Integer.class, table);
+        if (rows != null && rows > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.SEGMENT_COLUMN + ", " +
+                    IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)",
+                    table, floor);
+        } catch (DuplicateKeyException e) {
+            // Otra instancia la creó a la vez: basta con repetir el ajuste
+            raise(table, floor);
+        }
+    }
+
+    private int raise(String table, long floor) {
+        return jdbcTemplate.update(
+                "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ? " +
+                "WHERE " + IdGenerators.SEGMENT_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?",
+                floor, table, floor);
+    }
+}
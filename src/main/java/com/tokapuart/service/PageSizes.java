@@ -0,0 +1,25 @@
+package com.tokapuart.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tamaño de página de los listados paginados: el pedido por el cliente acotado al máximo,
+ * o el tamaño por defecto si no pide ninguno válido.
+ */
+@Component
+public class PageSizes {
+
+    @Value("${artworks.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${artworks.page.max-size:50}")
+    private int maxPageSize;
+
+    public int resolve(Integer size) {
+        if (size == null || size <= 0) {
+            return Math.min(defaultPageSize, maxPageSize);
+        }
+        return Math.min(size, maxPageSize);
+    }
+}
@@ -0,0 +1,261 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.ReactionStateResponse;
+import com.tokapuart.dto.ReactionSummaryResponse;
+import com.tokapuart.event.InteractionChangedEvent;
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
+import com.tokapuart.model.ArtworkReaction;
+import com.tokapuart.repository.ArtworkReactionRepository;
+import com.tokapuart.repository.ArtworkRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reacciones con sentencias atómicas y sin cargar entidades: una lectura de la reacción del
+ * usuario, el incremento relativo de los contadores de la obra y un INSERT IGNORE, UPDATE o
+ * DELETE de la fila condicionado a lo leído; tres viajes a la base de datos, o uno si la
+ * reacción ya estaba en el estado pedido. Con los contadores en la fila de la obra, el
+ * incremento va primero y bloquea la obra antes que la reacción en todas las escrituras, así
+ * que no se cruzan; con fragmentos va al final, en el orden de la compactación (ver
+ * ArtworkCounterService.incrementBeforeInsert). Las escrituras van en READ COMMITTED para que
+ * la relectura con FOR UPDATE de una reacción inexistente no tome bloqueo de hueco.
+ * Los resúmenes por obra salen de un único GROUP BY y se guardan en una caché de TTL
+ * corto que se invalida localmente al reaccionar.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactionService {
+
+    private static final ArtworkReaction.ReactionType[] REACTION_TYPES = ArtworkReaction.ReactionType.values();
+    private static final int MAX_SUMMARY_IDS = 200;
+    private static final int MAX_CACHED_SUMMARIES = 20000;
+
+    private final ArtworkReactionRepository reactionRepository;
+    private final ArtworkRepository artworkRepository;
+    private final ArtworkCounterService artworkCounterService;
+    private final UserInteractionCache userInteractionCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${artworks.reactions.summary-cache-ttl-ms:3000}")
+    private long summaryCacheTtlMs;
+
+    private final ConcurrentHashMap<Long, CachedCounts> summaryCache = new ConcurrentHashMap<>();
+
+    /**
+     * Devuelve false si el usuario ya tenía esa misma reacción.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean addOrUpdateReaction(Long artworkId, Long userId, ArtworkReaction.ReactionType reactionType) {
+        return writeReaction(artworkId, userId, reactionType);
+    }
+
+    /**
+     * Devuelve false si el usuario no tenía reacción en la obra.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean removeReaction(Long artworkId, Long userId) {
+        return writeReaction(artworkId, userId, null);
+    }
+
+    /**
+     * Deja la reacción del usuario en el estado pedido (null la quita); repetir la petición
+     * no falla. Devuelve la reacción y los contadores ya actualizados.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public ReactionStateResponse setReaction(Long artworkId, Long userId, ArtworkReaction.ReactionType reactionType) {
+        boolean changed = reactionType != null
+                ? addOrUpdateReaction(artworkId, userId, reactionType)
+                : removeReaction(artworkId, userId);
+        // Sin cambios no se ha tocado la obra: quitar una reacción de una obra inexistente es un 404
+        if (!changed && !artworkRepository.existsById(artworkId)) {
+            throw new RuntimeException("Obra no encontrada");
+        }
+
+        long[] counts = artworkCounterService.currentCounts(artworkId);
+        return ReactionStateResponse.builder()
+                .artworkId(artworkId)
+                .userReaction(reactionType != null ? reactionType.name() : null)
+                .changed(changed)
+                .likesCount(counts[CounterType.LIKES.ordinal()])
+                .lovesCount(counts[CounterType.LOVES.ordinal()])
+                .wowsCount(counts[CounterType.WOWS.ordinal()])
+                .clapsCount(counts[CounterType.CLAPS.ordinal()])
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public String getUserReaction(Long artworkId, Long userId) {
+        ArtworkReaction.ReactionType reaction = userInteractionCache.reaction(userId, artworkId);
+        return reaction != null ? reaction.name() : null;
+    }
+
+    /**
+     * Conteos por tipo y reacción del usuario para varias obras, en el orden pedido y sin
+     * duplicados. Las obras inexistentes aparecen con conteos a cero.
+     */
+    @Transactional(readOnly = true)
+    public List<ReactionSummaryResponse> getSummaries(Collection<Long> artworkIds, Long userId) {
+        LinkedHashSet<Long> ids = new LinkedHashSet<>(artworkIds);
+        ids.remove(null);
+        if (ids.size() > MAX_SUMMARY_IDS) {
+            throw new IllegalArgumentException("Máximo " + MAX_SUMMARY_IDS + " obras por consulta");
+        }
+        List<ReactionSummaryResponse> summaries = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return summaries;
+        }
+
+        Map<Long, long[]> counts = cachedCounts(ids);
+
+        Map<Long, ArtworkReaction.ReactionType> userReactions = userId != null
+                ? userInteractionCache.lookup(userId, ids).reactions()
+                : Map.of();
+
+        for (Long id : ids) {
+            long[] byType = counts.get(id);
+            ArtworkReaction.ReactionType userReaction = userReactions.get(id);
+            summaries.add(ReactionSummaryResponse.builder()
+                    .artworkId(id)
+                    .likesCount(byType[ArtworkReaction.ReactionType.LIKE.ordinal()])
+                    .lovesCount(byType[ArtworkReaction.ReactionType.LOVE.ordinal()])
+                    .wowsCount(byType[ArtworkReaction.ReactionType.WOW.ordinal()])
+                    .clapsCount(byType[ArtworkReaction.ReactionType.CLAP.ordinal()])
+                    .totalCount(Arrays.stream(byType).sum())
+                    .userReaction(userReaction != null ? userReaction.name() : null)
+                    .build());
+        }
+        return summaries;
+    }
+
+    /**
+     * Conteos indexados por el ordinal de ReactionType; los que faltan en la caché se cargan juntos.
+     */
+    private Map<Long, long[]> cachedCounts(Collection<Long> ids) {
+        long now = System.currentTimeMillis();
+        Map<Long, long[]> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            CachedCounts cached = summaryCache.get(id);
+            if (cached != null && cached.expiresAt() > now) {
+                result.put(id, cached.counts());
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, long[]> loaded = new HashMap<>();
+        for (Long id : missing) {
+            loaded.put(id, new long[REACTION_TYPES.length]);
+        }
+        for (Object[] row : reactionRepository.countByArtworkIdInGroupByType(missing)) {
+            loaded.get((Long) row[0])[((ArtworkReaction.ReactionType) row[1]).ordinal()] = (Long) row[2];
+        }
+
+        if (summaryCache.size() > MAX_CACHED_SUMMARIES) {
+            summaryCache.values().removeIf(cached -> cached.expiresAt() <= now);
+        }
+        long expiresAt = now + summaryCacheTtlMs;
+        loaded.forEach((id, byType) -> summaryCache.put(id, new CachedCounts(byType, expiresAt)));
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Deja la reacción del usuario en target (null la quita); devuelve false si ya estaba así.
+     * Una lectura sin bloqueo da la reacción actual y la escritura de la fila solo se aplica
+     * si sigue siendo esa. Si otra petición del usuario se adelantó, se corrigen los
+     * contadores sobre la reacción releída con bloqueo y se escribe de nuevo.
+     */
+    private boolean writeReaction(Long artworkId, Long userId, ArtworkReaction.ReactionType target) {
+        ArtworkReaction.ReactionType expected = reactionRepository.findReactionType(userId, artworkId)
+                .map(ArtworkReaction.ReactionType::valueOf)
+                .orElse(null);
+        if (expected == target) {
+            return false;
+        }
+
+        boolean countersFirst = artworkCounterService.incrementBeforeInsert();
+        if (countersFirst && !adjustCounters(artworkId, expected, target)) {
+            throw new RuntimeException("Obra no encontrada");
+        }
+        if (!writeRow(artworkId, userId, expected, target)) {
+            // Con los contadores en la obra, su fila ya está bloqueada y nadie más puede cambiar
+            // la reacción; con fragmentos, el FOR UPDATE la bloquea (sin hueco en READ COMMITTED)
+            ArtworkReaction.ReactionType actual = reactionRepository.lockReactionType(userId, artworkId)
+                    .map(ArtworkReaction.ReactionType::valueOf)
+                    .orElse(null);
+            if (countersFirst) {
+                // Se sumó target y se restó expected: se cambia expected por actual
+                adjustCounters(artworkId, actual, expected);
+            }
+            if (actual == target) {
+                return false;
+            }
+            if (!writeRow(artworkId, userId, actual, target)) {
+                // Con fragmentos, MySQL ignora la clave foránea con INSERT IGNORE y devuelve 0
+                throw new RuntimeException("Obra no encontrada");
+            }
+            expected = actual;
+        }
+        if (!countersFirst) {
+            adjustCounters(artworkId, expected, target);
+        }
+        eventPublisher.publishEvent(InteractionChangedEvent.reaction(userId, artworkId, target));
+        return true;
+    }
+
+    // false si la reacción ya no era expected
+    private boolean writeRow(Long artworkId, Long userId, ArtworkReaction.ReactionType expected, ArtworkReaction.ReactionType target) {
+        if (expected == null) {
+            return insertIgnore(artworkId, userId, target) == 1;
+        }
+        if (target == null) {
+            return reactionRepository.deleteReaction(userId, artworkId, expected.name()) > 0;
+        }
+        return reactionRepository.updateReactionType(userId, artworkId, expected.name(), target.name()) > 0;
+    }
+
+    private int insertIgnore(Long artworkId, Long userId, ArtworkReaction.ReactionType reactionType) {
+        try {
+            return reactionRepository.insertIgnore(artworkId, userId, reactionType.name());
+        } catch (DataIntegrityViolationException e) {
+            // MySQL ignora la clave foránea con INSERT IGNORE; otros motores la rechazan
+            throw new RuntimeException("Obra no encontrada");
+        }
+    }
+
+    // false si la obra no existe (solo se sabe con los contadores en su fila)
+    private boolean adjustCounters(Long artworkId, ArtworkReaction.ReactionType removed, ArtworkReaction.ReactionType added) {
+        long[] deltas = new long[CounterType.values().length];
+        if (removed != null) {
+            deltas[CounterType.of(removed).ordinal()]--;
+        }
+        if (added != null) {
+            deltas[CounterType.of(added).ordinal()]++;
+        }
+        boolean found = artworkCounterService.increment(artworkId, deltas);
+        // Otra lectura puede recargar el valor previo antes del commit; el TTL acota ese desfase
+        summaryCache.remove(artworkId);
+        return found;
+    }
+
+    private record CachedCounts(long[] counts, long expiresAt) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.SuggestionResponse;
+import com.tokapuart.event.ArtworkChangedEvent;
+import com.tokapuart.event.UserRegisteredEvent;
+import com.tokapuart.repository.ArtworkRepository;
+import com.tokapuart.repository.UserRepository;
+import com.tokapuart.util.SuggestionTrie;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Autocompletado en memoria sobre títulos, artistas y ciudades de las obras aprobadas
+ * y nombres de usuario. El peso de una obra es su popularidad (favoritos, comentarios,
+ * reacciones y vistas); el de un usuario, sus seguidores y obras publicadas.
+ * Las altas y bajas llegan por eventos; los pesos se refrescan en la reconstrucción periódica.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSuggestionIndex {
+
+    private static final SuggestionResponse.SuggestionType[] TYPES = SuggestionResponse.SuggestionType.values();
+
+    private final ArtworkRepository artworkRepository;
+    private final UserRepository userRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private State state;
+
+    // Cambios recibidos durante una reconstrucción, para aplicarlos también al estado nuevo
+    private List<Consumer<State>> replay;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${artworks.suggest.rebuild-interval-ms:900000}",
+               initialDelayString = "${artworks.suggest.rebuild-interval-ms:900000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            State fresh = new State();
+            Map<Long, Long> artworksByUser = new HashMap<>();
+            for (Object[] row : artworkRepository.findSuggestionSources()) {
+                Long userId = (Long) row[1];
+                long weight = 1 + ((Number) row[5]).longValue();
+                fresh.putArtwork((Long) row[0], new ArtworkSource(userId, (String) row[2], (String) row[3], (String) row[4], weight));
+                artworksByUser.merge(userId, 1L, Long::sum);
+            }
+            for (Object[] row : userRepository.findSuggestionSources()) {
+                Long userId = (Long) row[0];
+                long weight = 1 + ((Number) row[2]).longValue() + artworksByUser.getOrDefault(userId, 0L);
+                fresh.putUser(userId, (String) row[1], weight);
+            }
+
+            lock.writeLock().lock();
+            try {
+                replay.forEach(change -> change.accept(fresh));
+                state = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Índice de sugerencias reconstruido con {} textos", fresh.trie.size());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArtworkChanged(ArtworkChangedEvent event) {
+        apply(current -> current.applyArtwork(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserRegistered(UserRegisteredEvent event) {
+        apply(current -> current.registerUser(event.userId(), event.username()));
+    }
+
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            if (state == null) {
+                return List.of();
+            }
+            return state.trie.suggest(prefix, limit).stream()
+                    .map(suggestion -> SuggestionResponse.builder()
+                            .text(suggestion.text())
+                            .type(TYPES[suggestion.kind()])
+                            .build())
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null) {
+                replay.add(change);
+            }
+            if (state != null) {
+                change.accept(state);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record ArtworkSource(Long userId, String title, String artistName, String city, long weight) {
+    }
+
+    private record UserSource(String username, long weight) {
+    }
+
+    /**
+     * Trie más las aportaciones de cada obra y usuario, necesarias para deshacerlas al editar o borrar.
+     */
+    private static final class State {
+        final SuggestionTrie trie = new SuggestionTrie();
+        final Map<Long, ArtworkSource> artworks = new HashMap<>();
+        final Map<Long, UserSource> users = new HashMap<>();
+
+        void putArtwork(Long artworkId, ArtworkSource source) {
+            artworks.put(artworkId, source);
+            addOrRemove(source, true);
+            adjustUser(source.userId(), 1);
+        }
+
+        void applyArtwork(ArtworkChangedEvent event) {
+            ArtworkSource previous = removeArtwork(event.artworkId());
+            if (event.isVisible()) {
+                // Al editar se conserva la popularidad conocida hasta la próxima reconstrucción
+                long weight = previous != null ? previous.weight() : 1;
+                putArtwork(event.artworkId(), new ArtworkSource(
+                        event.userId(), event.title(), event.artistName(), event.city(), weight));
+            }
+        }
+
+        // Un alta repetida (p. ej. al reaplicarla tras una reconstrucción que ya la leyó) no pisa el peso
+        void registerUser(Long userId, String username) {
+            if (!users.containsKey(userId)) {
+                putUser(userId, username, 1);
+            }
+        }
+
+        ArtworkSource removeArtwork(Long artworkId) {
+            ArtworkSource source = artworks.remove(artworkId);
+            if (source != null) {
+                addOrRemove(source, false);
+                adjustUser(source.userId(), -1);
+            }
+            return source;
+        }
+
+        void putUser(Long userId, String username, long weight) {
+            UserSource previous = users.put(userId, new UserSource(username, weight));
+            if (previous != null) {
+                trie.remove(previous.username(), SuggestionResponse.SuggestionType.USER.ordinal(), previous.weight());
+            }
+            trie.add(username, SuggestionResponse.SuggestionType.USER.ordinal(), weight);
+        }
+
+        private void adjustUser(Long userId, long delta) {
+            UserSource user = users.get(userId);
+            if (user != null) {
+                putUser(userId, user.username(), user.weight() + delta);
+            }
+        }
+
+        private void addOrRemove(ArtworkSource source, boolean add) {
+            apply(source.title(), SuggestionResponse.SuggestionType.TITLE, source.weight(), add);
+            apply(source.artistName(), SuggestionResponse.SuggestionType.ARTIST, source.weight(), add);
+            apply(source.city(), SuggestionResponse.SuggestionType.CITY, source.weight(), add);
+        }
+
+        private void apply(String text, SuggestionResponse.SuggestionType type, long weight, boolean add) {
+            if (text == null) {
+                return;
+            }
+            if (add) {
+                trie.add(text, type.ordinal(), weight);
+            } else {
+                trie.remove(text, type.ordinal(), weight);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.tokapuart.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Momento en que empezó cada transacción, para las cachés que cargan con la transacción del
+ * llamador. En REPEATABLE READ la instantánea se fija en su primera lectura, así que lo que
+ * carga puede no incluir cambios confirmados después de ese inicio: la caché solo lo guarda
+ * si el dato no cambió desde entonces. Spring Boot registra el listener en el gestor de
+ * transacciones.
+ */
+@Component
+public class TransactionStarts implements TransactionExecutionListener {
+
+    /**
+     * Desde cuándo están al día los datos que lea ahora este hilo (System.nanoTime): el
+     * inicio de su transacción o, sin transacción, el momento actual. Long.MIN_VALUE si hay
+     * una transacción de inicio desconocido, para que no se guarde nada.
+     */
+    public long readSince() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return System.nanoTime();
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Start start) {
+                return start.nanos();
+            }
+        }
+        return TransactionSynchronizationManager.isActualTransactionActive() ? Long.MIN_VALUE : System.nanoTime();
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        // Se llama con la sincronización ya preparada; se suspende y reanuda con la transacción
+        if (beginFailure == null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new Start(System.nanoTime()));
+        }
+    }
+
+    private record Start(long nanos) implements TransactionSynchronization {
+    }
+}
@@ -0,0 +1,209 @@
+package com.tokapuart.service;
+
+import com.tokapuart.event.InteractionChangedEvent;
+import com.tokapuart.model.ArtworkReaction;
+import com.tokapuart.repository.ArtworkReactionRepository;
+import com.tokapuart.repository.FavoriteRepository;
+import com.tokapuart.util.LongByteHashMap;
+import com.tokapuart.util.LongHashSet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Favoritos y reacciones de los usuarios activos, para resolver isFavorited y userReaction
+ * sin consultas. Cada usuario se carga entero la primera vez (dos consultas) en conjuntos
+ * primitivos y se mantiene con los eventos de escritura; los menos usados salen por LRU.
+ * El TTL acota el desfase con escrituras hechas en otras instancias. Una carga hecha dentro
+ * de una transacción solo se conserva si el usuario no cambió nada después de que empezara
+ * (ver TransactionStarts).
+ */
+@Component
+@RequiredArgsConstructor
+public class UserInteractionCache {
+
+    public record Interactions(Set<Long> favorited, Map<Long, ArtworkReaction.ReactionType> reactions) {
+    }
+
+    private static final ArtworkReaction.ReactionType[] REACTION_TYPES = ArtworkReaction.ReactionType.values();
+
+    // Potencia de dos; los usuarios que comparten cubeta comparten la hora del último cambio
+    private static final int CHANGE_BUCKETS = 4096;
+
+    private final FavoriteRepository favoriteRepository;
+    private final ArtworkReactionRepository reactionRepository;
+    private final TransactionStarts transactionStarts;
+
+    @Value("${artworks.interactions.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${artworks.interactions.ttl-ms:600000}")
+    private long ttlMs;
+
+    // Orden de acceso: el primero es el menos usado
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Último favorito o reacción por cubeta de usuario (System.nanoTime)
+    private final long[] changedAt = newChangedAt();
+
+    /**
+     * Cuáles de las obras tiene el usuario en favoritos y con qué reacción.
+     */
+    public Interactions lookup(Long userId, Collection<Long> artworkIds) {
+        Entry entry = acquire(userId);
+        Set<Long> favorited = new HashSet<>();
+        Map<Long, ArtworkReaction.ReactionType> reactions = new HashMap<>();
+        synchronized (entry) {
+            for (Long artworkId : artworkIds) {
+                if (entry.favorites.contains(artworkId)) {
+                    favorited.add(artworkId);
+                }
+                byte reaction = entry.reactions.get(artworkId);
+                if (reaction != LongByteHashMap.ABSENT) {
+                    reactions.put(artworkId, REACTION_TYPES[reaction]);
+                }
+            }
+        }
+        return new Interactions(favorited, reactions);
+    }
+
+    public boolean isFavorited(Long userId, Long artworkId) {
+        Entry entry = acquire(userId);
+        synchronized (entry) {
+            return entry.favorites.contains(artworkId);
+        }
+    }
+
+    public ArtworkReaction.ReactionType reaction(Long userId, Long artworkId) {
+        Entry entry = acquire(userId);
+        synchronized (entry) {
+            byte reaction = entry.reactions.get(artworkId);
+            return reaction != LongByteHashMap.ABSENT ? REACTION_TYPES[reaction] : null;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInteractionChanged(InteractionChangedEvent event) {
+        if (event.kind() != InteractionChangedEvent.Kind.FAVORITE && event.kind() != InteractionChangedEvent.Kind.REACTION) {
+            return;
+        }
+        Entry entry;
+        synchronized (entries) {
+            changedAt[bucket(event.userId())] = System.nanoTime();
+            entry = entries.get(event.userId());
+        }
+        if (entry == null) {
+            return;
+        }
+        // Si la carga aún no terminó, espera al lock y el evento se aplica encima de lo cargado
+        synchronized (entry) {
+            if (event.kind() == InteractionChangedEvent.Kind.FAVORITE) {
+                if (event.favorited()) {
+                    entry.favorites.add(event.artworkId());
+                } else {
+                    entry.favorites.remove(event.artworkId());
+                }
+            } else if (event.reactionType() != null) {
+                entry.reactions.put(event.artworkId(), (byte) event.reactionType().ordinal());
+            } else {
+                entry.reactions.remove(event.artworkId());
+            }
+        }
+    }
+
+    private Entry acquire(Long userId) {
+        long readSince = transactionStarts.readSince();
+        long now = System.currentTimeMillis();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+            if (entry == null || entry.expiresAt <= now) {
+                entry = new Entry(now + ttlMs);
+                entries.put(userId, entry);
+                if (entries.size() > maxUsers) {
+                    Iterator<Entry> eldest = entries.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+        boolean loadedNow = false;
+        synchronized (entry) {
+            if (!entry.loaded) {
+                load(userId, entry);
+                entry.loaded = true;
+                loadedNow = true;
+            }
+        }
+        if (loadedNow) {
+            synchronized (entries) {
+                // La lectura pudo no ver un cambio confirmado antes de crear la entrada: sirve
+                // para esta petición y la siguiente vuelve a cargar
+                if (changedAt[bucket(userId)] >= readSince) {
+                    entries.remove(userId, entry);
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Lee con la transacción del llamador, sin ocupar otra conexión del pool. Si el llamador
+     * escribe y después se deshace, la entrada se descarta para no conservar lo que leyó sin
+     * confirmar.
+     */
+    private void load(Long userId, Entry entry) {
+        for (Long artworkId : favoriteRepository.findArtworkIdsByUserId(userId)) {
+            entry.favorites.add(artworkId);
+        }
+        for (Object[] row : reactionRepository.findReactionsByUserId(userId)) {
+            entry.reactions.put((Long) row[0], (byte) ((ArtworkReaction.ReactionType) row[1]).ordinal());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        synchronized (entries) {
+                            entries.remove(userId, entry);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private static long[] newChangedAt() {
+        long[] changedAt = new long[CHANGE_BUCKETS];
+        Arrays.fill(changedAt, Long.MIN_VALUE);
+        return changedAt;
+    }
+
+    private static int bucket(Long userId) {
+        return (int) (userId & (CHANGE_BUCKETS - 1));
+    }
+
+    private static final class Entry {
+        final LongHashSet favorites = new LongHashSet();
+        final LongByteHashMap reactions = new LongByteHashMap();
+        final long expiresAt;
+        boolean loaded;
+
+        Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package com.tokapuart.service;
 
+import com.tokapuart.dto.CursorPage;
+import com.tokapuart.dto.FollowUserResponse;
 import com.tokapuart.dto.UserProfileResponse;
+import com.tokapuart.dto.UserSummary;
+import com.tokapuart.event.FollowChangedEvent;
+import com.tokapuart.event.UserProfileChangedEvent;
 import com.tokapuart.model.User;
+import com.tokapuart.model.UserStats.StatType;
 import com.tokapuart.repository.FollowerRepository;
 import com.tokapuart.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 public class UserService {
@@ -16,16 +27,23 @@ public class UserService {
     private final UserRepository userRepository;
     private final FollowerRepository followerRepository;
     private final FileStorageService fileStorageService;
+    private final UserStatsService userStatsService;
+    private final FollowerGraph followerGraph;
+    private final UserSummaryCache userSummaryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageSizes pageSizes;
 
     @Transactional(readOnly = true)
     public UserProfileResponse getUserProfile(Long userId, Long currentUserId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        Boolean isFollowing = currentUserId != null &&
-                followerRepository.existsByFollowerIdAndFollowingId(currentUserId, userId);
-
-        return mapToProfileResponse(user, isFollowing);
+        UserProfileResponse profile = mapToProfileResponse(user);
+        if (currentUserId != null) {
+            profile.setIsFollowing(followerGraph.isFollowing(currentUserId, userId));
+            profile.setFollowsYou(followerGraph.isFollowing(userId, currentUserId));
+        }
+        return profile;
     }
 
     @Transactional(readOnly = true)
@@ -33,7 +51,7 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        return mapToProfileResponse(user, null);
+        return mapToProfileResponse(user);
     }
 
     @Transactional
@@ -58,8 +76,9 @@ public class UserService {
         }
 
         user = userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
 
-        return mapToProfileResponse(user, null);
+        return mapToProfileResponse(user);
     }
 
     @Transactional
@@ -84,6 +103,8 @@ public class UserService {
                 .build();
 
         followerRepository.save(followerEntity);
+        userStatsService.followChanged(followerId, followingId, 1);
+        eventPublisher.publishEvent(new FollowChangedEvent(followerId, followingId, true));
     }
 
     @Transactional
@@ -93,6 +114,25 @@ public class UserService {
         }
 
         followerRepository.deleteByFollowerIdAndFollowingId(followerId, followingId);
+        userStatsService.followChanged(followerId, followingId, -1);
+        eventPublisher.publishEvent(new FollowChangedEvent(followerId, followingId, false));
+    }
+
+    /**
+     * Seguidores del usuario por orden de id, paginados con el último id visto. Los ids
+     * salen del grafo en memoria y los datos de cada usuario de UserSummaryCache.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<FollowUserResponse> getFollowers(Long userId, String cursor, Integer size, Long currentUserId) {
+        return toFollowPage(followerGraph.followers(userId), cursor, size, currentUserId);
+    }
+
+    /**
+     * Usuarios a los que sigue, igual que getFollowers.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<FollowUserResponse> getFollowing(Long userId, String cursor, Integer size, Long currentUserId) {
+        return toFollowPage(followerGraph.following(userId), cursor, size, currentUserId);
     }
 
     @Transactional
@@ -116,16 +156,58 @@ public class UserService {
         // Actualizar usuario
         user.setProfilePhotoUrl(photoUrl);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
 
         return photoUrl;
     }
 
-    private UserProfileResponse mapToProfileResponse(User user, Boolean isFollowing) {
-        Long artworksCount = userRepository.countArtworksByUserId(user.getId());
-        Long favoritesCount = userRepository.countFavoritesByUserId(user.getId());
-        Long commentsCount = userRepository.countCommentsByUserId(user.getId());
-        Long followersCount = userRepository.countFollowersByUserId(user.getId());
-        Long followingCount = userRepository.countFollowingByUserId(user.getId());
+    private CursorPage<FollowUserResponse> toFollowPage(long[] ids, String cursor, Integer size, Long currentUserId) {
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+        }
+        int pageSize = pageSizes.resolve(size);
+        long[] page = FollowerGraph.page(ids, afterId, pageSize + 1);
+        boolean hasMore = page.length > pageSize;
+        int count = hasMore ? pageSize : page.length;
+
+        List<Long> pageIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pageIds.add(page[i]);
+        }
+        Map<Long, UserSummary> usersById = userSummaryCache.getAll(pageIds);
+
+        List<FollowUserResponse> items = new ArrayList<>(count);
+        for (Long id : pageIds) {
+            UserSummary user = usersById.get(id);
+            if (user == null) {
+                continue;
+            }
+            items.add(FollowUserResponse.builder()
+                    .id(user.id())
+                    .username(user.username())
+                    .fullName(user.fullName())
+                    .profilePhotoUrl(user.profilePhotoUrl())
+                    .isArtist(user.isArtist())
+                    .isFollowing(currentUserId != null ? followerGraph.isFollowing(currentUserId, id) : null)
+                    .followsYou(currentUserId != null ? followerGraph.isFollowing(id, currentUserId) : null)
+                    .build());
+        }
+
+        return CursorPage.<FollowUserResponse>builder()
+                .items(items)
+                .nextCursor(hasMore ? String.valueOf(page[count - 1]) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private UserProfileResponse mapToProfileResponse(User user) {
+        // Una búsqueda por clave en user_stats en lugar de cinco COUNT
+        long[] stats = userStatsService.get(user.getId());
 
         return UserProfileResponse.builder()
                 .id(user.getId())
@@ -137,13 +219,12 @@ public class UserService {
                 .profilePhotoUrl(user.getProfilePhotoUrl())
                 .isArtist(user.getIsArtist())
                 .isPublic(user.getIsPublic())
-                .artworksCount(artworksCount)
-                .favoritesCount(favoritesCount)
-                .commentsCount(commentsCount)
-                .followersCount(followersCount)
-                .followingCount(followingCount)
+                .artworksCount(stats[StatType.ARTWORKS.ordinal()])
+                .favoritesCount(stats[StatType.FAVORITES.ordinal()])
+                .commentsCount(stats[StatType.COMMENTS.ordinal()])
+                .followersCount(stats[StatType.FOLLOWERS.ordinal()])
+                .followingCount(stats[StatType.FOLLOWING.ordinal()])
                 .createdAt(user.getCreatedAt())
-                .isFollowing(isFollowing)
                 .build();
     }
 }
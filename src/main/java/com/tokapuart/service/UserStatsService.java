@@ -0,0 +1,310 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.CounterReconciliationReport;
+import com.tokapuart.dto.UserStatsRebuildReport;
+import com.tokapuart.model.UserStats.StatType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Contadores del perfil de usuario en user_stats. Las escrituras de obras, favoritos,
+ * comentarios y seguidores aplican incrementos relativos dentro de su transacción, así el
+ * perfil se lee con una búsqueda por clave primaria en vez de cinco COUNT.
+ * Un recálculo por tramos de ids de usuario corrige la deriva con actualizaciones
+ * condicionales al valor leído, igual que CounterReconciliationService: no pisa los
+ * incrementos concurrentes y esas filas quedan para la siguiente pasada.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatsService {
+
+    private static final StatType[] TYPES = StatType.values();
+
+    private static final String COLUMNS = Arrays.stream(TYPES).map(StatType::column).collect(Collectors.joining(", "));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${users.stats.rebuild.chunk-size:1000}")
+    private int chunkSize;
+
+    private volatile UserStatsRebuildReport lastReport;
+
+    /**
+     * Suma delta al contador del usuario, creando su fila si no existe. Participa en la
+     * transacción del llamador.
+     */
+    public void increment(Long userId, StatType type, long delta) {
+        incrementAll(Map.of(userId, delta), type);
+    }
+
+    /**
+     * Aplica un delta por usuario en un lote, en orden de id para que dos escrituras que
+     * tocan los mismos usuarios bloqueen las filas en el mismo orden.
+     */
+    public void incrementAll(Map<Long, Long> deltas, StatType type) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String values = Arrays.stream(TYPES).map(t -> t == type ? "?" : "0").collect(Collectors.joining(", "));
+        List<Object[]> batch = new TreeMap<>(deltas).entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO user_stats (user_id, " + COLUMNS + ") VALUES (?, " + values + ") " +
+                "ON DUPLICATE KEY UPDATE " + type.column() + " = " + type.column() + " + VALUES(" + type.column() + ")",
+                batch);
+    }
+
+    /**
+     * Seguir o dejar de seguir (delta 1 o -1): seguidos de uno y seguidores del otro.
+     */
+    public void followChanged(Long followerId, Long followingId, long delta) {
+        // Mismo orden de bloqueo que incrementAll
+        if (followerId < followingId) {
+            increment(followerId, StatType.FOLLOWING, delta);
+            increment(followingId, StatType.FOLLOWERS, delta);
+        } else {
+            increment(followingId, StatType.FOLLOWERS, delta);
+            increment(followerId, StatType.FOLLOWING, delta);
+        }
+    }
+
+    /**
+     * Descuenta la obra a su autor y los favoritos y comentarios que la cascada va a borrar
+     * a cada usuario. Debe llamarse antes de borrar la obra, en la misma transacción.
+     */
+    public void artworkDeleting(Long artworkId, Long ownerId) {
+        increment(ownerId, StatType.ARTWORKS, -1);
+        incrementAll(removalDeltas("SELECT user_id, COUNT(*) FROM favorites WHERE artwork_id = ? GROUP BY user_id", artworkId),
+                StatType.FAVORITES);
+        incrementAll(removalDeltas("SELECT user_id, COUNT(*) FROM comments WHERE artwork_id = ? GROUP BY user_id", artworkId),
+                StatType.COMMENTS);
+    }
+
+    /**
+     * Contadores del usuario indexados por el ordinal de StatType; ceros si aún no tiene fila.
+     */
+    public long[] get(Long userId) {
+        List<long[]> rows = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM user_stats WHERE user_id = ?",
+                (rs, i) -> {
+                    long[] counts = new long[TYPES.length];
+                    for (StatType type : TYPES) {
+                        counts[type.ordinal()] = rs.getLong(type.ordinal() + 1);
+                    }
+                    return counts;
+                },
+                userId);
+        return rows.isEmpty() ? new long[TYPES.length] : rows.get(0);
+    }
+
+    /**
+     * Al desplegar sobre una base de datos existente user_stats empieza vacía: se rellena
+     * al arrancar si hay usuarios sin fila.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfMissing() {
+        Integer missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users u WHERE NOT EXISTS (SELECT 1 FROM user_stats s WHERE s.user_id = u.id)",
+                Integer.class);
+        if (missing != null && missing > 0) {
+            log.info("{} usuarios sin estadísticas: recalculando", missing);
+            scheduledRebuild();
+        }
+    }
+
+    @Scheduled(cron = "${users.stats.rebuild.cron:0 0 5 * * *}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Error al recalcular estadísticas de usuarios: {}", e.getMessage());
+        }
+    }
+
+    public UserStatsRebuildReport rebuild() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Ya hay un recálculo de estadísticas de usuarios en curso");
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long start = System.currentTimeMillis();
+            Totals totals = new Totals();
+
+            Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM users");
+            if (range.get("min_id") != null) {
+                long maxId = ((Number) range.get("max_id")).longValue();
+                for (long from = ((Number) range.get("min_id")).longValue(); from <= maxId; from += chunkSize) {
+                    long chunkFrom = from;
+                    transactionTemplate.executeWithoutResult(status -> rebuildChunk(chunkFrom, chunkFrom + chunkSize, totals));
+                }
+            }
+
+            UserStatsRebuildReport report = totals.toReport(startedAt, System.currentTimeMillis() - start);
+            lastReport = report;
+            log.info("Estadísticas de usuarios recalculadas: {} usuarios, {} filas nuevas", report.getUsersChecked(),
+                    report.getRowsCreated());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public UserStatsRebuildReport getLastReport() {
+        return lastReport;
+    }
+
+    private void rebuildChunk(long from, long to, Totals totals) {
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE id >= ? AND id < ?", Long.class, from, to);
+        if (userIds.isEmpty()) {
+            return;
+        }
+        totals.usersChecked += userIds.size();
+
+        // 1. Valores guardados antes que los agregados: un incremento intermedio hace fallar la corrección
+        Map<Long, long[]> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, " + COLUMNS + " FROM user_stats WHERE user_id >= ? AND user_id < ?",
+                rs -> {
+                    long[] values = new long[TYPES.length];
+                    for (StatType type : TYPES) {
+                        values[type.ordinal()] = rs.getLong(type.ordinal() + 2);
+                    }
+                    stored.put(rs.getLong(1), values);
+                },
+                from, to);
+
+        // 2. Agregados de las tablas de origen
+        Map<Long, long[]> actual = new HashMap<>();
+        countInto(actual, StatType.ARTWORKS,
+                "SELECT user_id, COUNT(*) FROM artworks WHERE user_id >= ? AND user_id < ? GROUP BY user_id", from, to);
+        countInto(actual, StatType.FAVORITES,
+                "SELECT user_id, COUNT(*) FROM favorites WHERE user_id >= ? AND user_id < ? GROUP BY user_id", from, to);
+        countInto(actual, StatType.COMMENTS,
+                "SELECT user_id, COUNT(*) FROM comments WHERE user_id >= ? AND user_id < ? GROUP BY user_id", from, to);
+        countInto(actual, StatType.FOLLOWERS,
+                "SELECT following_id, COUNT(*) FROM followers WHERE following_id >= ? AND following_id < ? GROUP BY following_id", from, to);
+        countInto(actual, StatType.FOLLOWING,
+                "SELECT follower_id, COUNT(*) FROM followers WHERE follower_id >= ? AND follower_id < ? GROUP BY follower_id", from, to);
+
+        // 3. Filas nuevas con INSERT IGNORE (si un incremento la creó entretanto, se corrige en la siguiente pasada)
+        List<Object[]> inserts = new ArrayList<>();
+        Map<StatType, List<Object[]>> corrections = new EnumMap<>(StatType.class);
+        for (Long userId : userIds) {
+            long[] counts = actual.getOrDefault(userId, new long[TYPES.length]);
+            long[] current = stored.get(userId);
+            if (current == null) {
+                Object[] row = new Object[TYPES.length + 1];
+                row[0] = userId;
+                for (StatType type : TYPES) {
+                    row[type.ordinal() + 1] = counts[type.ordinal()];
+                }
+                inserts.add(row);
+                continue;
+            }
+            for (StatType type : TYPES) {
+                long expected = counts[type.ordinal()];
+                long value = current[type.ordinal()];
+                if (value != expected) {
+                    totals.drifted[type.ordinal()]++;
+                    totals.absoluteDrift[type.ordinal()] += Math.abs(expected - value);
+                    corrections.computeIfAbsent(type, t -> new ArrayList<>()).add(new Object[]{expected, userId, value});
+                }
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            String placeholders = Arrays.stream(TYPES).map(t -> "?").collect(Collectors.joining(", "));
+            for (int result : jdbcTemplate.batchUpdate(
+                    "INSERT IGNORE INTO user_stats (user_id, " + COLUMNS + ") VALUES (?, " + placeholders + ")", inserts)) {
+                if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                    totals.rowsCreated++;
+                }
+            }
+        }
+
+        // 4. Correcciones condicionales, un lote por contador
+        corrections.forEach((type, batch) -> {
+            int[] results = jdbcTemplate.batchUpdate(
+                    "UPDATE user_stats SET " + type.column() + " = ? WHERE user_id = ? AND " + type.column() + " = ?",
+                    batch);
+            for (int result : results) {
+                if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                    totals.corrected[type.ordinal()]++;
+                } else {
+                    totals.skipped[type.ordinal()]++;
+                }
+            }
+        });
+    }
+
+    private void countInto(Map<Long, long[]> actual, StatType type, String sql, long from, long to) {
+        jdbcTemplate.query(sql,
+                rs -> {
+                    actual.computeIfAbsent(rs.getLong(1), id -> new long[TYPES.length])[type.ordinal()] = rs.getLong(2);
+                },
+                from, to);
+    }
+
+    // Filas por usuario que se van a borrar, como deltas negativos
+    private Map<Long, Long> removalDeltas(String sql, Long artworkId) {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query(sql,
+                rs -> {
+                    counts.put(rs.getLong(1), -rs.getLong(2));
+                },
+                artworkId);
+        return counts;
+    }
+
+    private static final class Totals {
+        int usersChecked;
+        int rowsCreated;
+        final int[] drifted = new int[TYPES.length];
+        final long[] absoluteDrift = new long[TYPES.length];
+        final int[] corrected = new int[TYPES.length];
+        final int[] skipped = new int[TYPES.length];
+
+        UserStatsRebuildReport toReport(LocalDateTime startedAt, long durationMs) {
+            Map<StatType, CounterReconciliationReport.CounterDrift> stats = new EnumMap<>(StatType.class);
+            for (StatType type : TYPES) {
+                stats.put(type, CounterReconciliationReport.CounterDrift.builder()
+                        .drifted(drifted[type.ordinal()])
+                        .absoluteDrift(absoluteDrift[type.ordinal()])
+                        .corrected(corrected[type.ordinal()])
+                        .skipped(skipped[type.ordinal()])
+                        .build());
+            }
+            return UserStatsRebuildReport.builder()
+                    .startedAt(startedAt)
+                    .durationMs(durationMs)
+                    .usersChecked(usersChecked)
+                    .rowsCreated(rowsCreated)
+                    .stats(stats)
+                    .build();
+        }
+    }
+}
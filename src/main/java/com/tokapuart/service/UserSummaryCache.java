@@ -0,0 +1,141 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.UserSummary;
+import com.tokapuart.event.UserProfileChangedEvent;
+import com.tokapuart.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * UserSummary por id para los autores de obras y comentarios: las consultas de obras y
+ * comentarios solo traen user_id y los nombres y fotos salen de aquí. Los que faltan se
+ * cargan juntos con una proyección; los menos usados salen por LRU. Se invalida con
+ * UserProfileChangedEvent y el TTL acota el desfase con cambios hechos en otras instancias.
+ * Lo cargado dentro de una transacción solo se guarda si el usuario no cambió después de
+ * que empezara (ver TransactionStarts).
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSummaryCache {
+
+    // Potencia de dos; los usuarios que comparten cubeta comparten la hora del último cambio
+    private static final int CHANGE_BUCKETS = 4096;
+
+    private final UserRepository userRepository;
+    private final TransactionStarts transactionStarts;
+
+    @Value("${users.summaries.max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${users.summaries.ttl-ms:600000}")
+    private long ttlMs;
+
+    // Orden de acceso: el primero es el menos usado
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Último cambio de perfil por cubeta de usuario (System.nanoTime)
+    private final long[] changedAt = newChangedAt();
+
+    public UserSummary get(Long userId) {
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    /**
+     * Resúmenes de los usuarios indicados; los que no existen no aparecen en el mapa.
+     */
+    public Map<Long, UserSummary> getAll(Collection<Long> userIds) {
+        Map<Long, UserSummary> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        long now = System.currentTimeMillis();
+        long readSince = transactionStarts.readSince();
+        synchronized (entries) {
+            for (Long userId : userIds) {
+                Entry entry = entries.get(userId);
+                if (entry != null && entry.expiresAt() > now) {
+                    result.put(userId, entry.summary());
+                } else {
+                    missing.add(userId);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<UserSummary> loaded = load(missing);
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        synchronized (entries) {
+            for (UserSummary summary : loaded) {
+                result.put(summary.id(), summary);
+                // Una carga que se cruzó con un cambio del usuario no se guarda
+                if (changedAt[bucket(summary.id())] < readSince) {
+                    entries.put(summary.id(), new Entry(summary, expiresAt));
+                }
+            }
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        synchronized (entries) {
+            changedAt[bucket(event.userId())] = System.nanoTime();
+            entries.remove(event.userId());
+        }
+    }
+
+    /**
+     * Lee con la transacción del llamador, sin ocupar otra conexión del pool. Si el llamador
+     * escribe y después se deshace, los resúmenes cargados se descartan para no conservar lo
+     * que leyó sin confirmar.
+     */
+    private List<UserSummary> load(Collection<Long> userIds) {
+        List<UserSummary> loaded = userRepository.findSummariesByIdIn(userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        synchronized (entries) {
+                            loaded.forEach(summary -> entries.remove(summary.id()));
+                        }
+                    }
+                }
+            });
+        }
+        return loaded;
+    }
+
+    private static long[] newChangedAt() {
+        long[] changedAt = new long[CHANGE_BUCKETS];
+        Arrays.fill(changedAt, Long.MIN_VALUE);
+        return changedAt;
+    }
+
+    private static int bucket(Long userId) {
+        return (int) (userId & (CHANGE_BUCKETS - 1));
+    }
+
+    private record Entry(UserSummary summary, long expiresAt) {
+    }
+}
@@ -0,0 +1,284 @@
+package com.tokapuart.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pirámide de rejillas para agrupar puntos en el mapa.
+ * El nivel L divide el mundo en celdas cuadradas de 360 / 2^L grados; cada celda guarda
+ * el conteo, la suma de coordenadas (para el centroide), el conteo por tipo y un id de
+ * muestra. Insertar o quitar un punto actualiza una celda por nivel, y consultar un
+ * viewport solo toca las celdas de ese nivel. No es thread-safe.
+ */
+public class ClusterPyramid {
+
+    public record Cluster(double latitude, double longitude, int count, int dominantType, long sampleId) {
+    }
+
+    private final int maxLevel;
+    private final int typeCount;
+    private final List<Map<Long, Node>> levels = new ArrayList<>();
+    private final Map<Long, Point> points = new HashMap<>();
+
+    public ClusterPyramid(int maxLevel, int typeCount) {
+        this.maxLevel = maxLevel;
+        this.typeCount = typeCount;
+        for (int level = 0; level <= maxLevel; level++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    public int maxLevel() {
+        return maxLevel;
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    public void put(long id, double lat, double lng, int type) {
+        remove(id);
+        Point point = new Point(lat, lng, type);
+        points.put(id, point);
+
+        for (int level = 0; level <= maxLevel; level++) {
+            Node node = levels.get(level).computeIfAbsent(key(level, lat, lng), k -> new Node(typeCount));
+            node.count++;
+            node.sumLat += lat;
+            node.sumLng += lng;
+            node.typeCounts[type]++;
+            if (node.count == 1) {
+                node.sampleId = id;
+            }
+            if (level == maxLevel) {
+                node.addMember(id);
+            }
+        }
+    }
+
+    public boolean remove(long id) {
+        Point point = points.remove(id);
+        if (point == null) {
+            return false;
+        }
+
+        // De la celda más fina a la más gruesa, así los hijos ya están actualizados al elegir nueva muestra
+        for (int level = maxLevel; level >= 0; level--) {
+            long key = key(level, point.lat, point.lng);
+            Map<Long, Node> cells = levels.get(level);
+            Node node = cells.get(key);
+            node.count--;
+            node.sumLat -= point.lat;
+            node.sumLng -= point.lng;
+            node.typeCounts[point.type]--;
+            if (level == maxLevel) {
+                node.removeMember(id);
+            }
+
+            if (node.count == 0) {
+                cells.remove(key);
+            } else if (node.sampleId == id) {
+                node.sampleId = level == maxLevel ? node.members[0] : childSample(level, key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clusters del nivel dado que caen dentro del rectángulo. Si el nivel supera el máximo
+     * de la pirámide, cada punto se devuelve como un cluster de tamaño 1. Si el resultado
+     * pasaría de limit clusters se sube de nivel hasta que quepa, así un viewport enorme
+     * con zoom alto devuelve clusters más gruesos en lugar de todos los puntos.
+     */
+    public List<Cluster> query(double minLat, double minLng, double maxLat, double maxLng, int level, int limit) {
+        if (level > maxLevel) {
+            List<Cluster> clusters = pointsIn(minLat, minLng, maxLat, maxLng, limit);
+            if (clusters != null) {
+                return clusters;
+            }
+            level = maxLevel;
+        }
+        for (int current = level; current >= 0; current--) {
+            List<Cluster> clusters = clustersIn(minLat, minLng, maxLat, maxLng, current, limit);
+            if (clusters != null) {
+                return clusters;
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    // null si hay más de limit puntos
+    private List<Cluster> pointsIn(double minLat, double minLng, double maxLat, double maxLng, int limit) {
+        List<Node> nodes = cellsIn(minLat, minLng, maxLat, maxLng, maxLevel, Integer.MAX_VALUE);
+        List<Cluster> clusters = new ArrayList<>();
+        for (Node node : nodes) {
+            for (int i = 0; i < node.memberCount; i++) {
+                Point point = points.get(node.members[i]);
+                if (contains(point.lat, point.lng, minLat, minLng, maxLat, maxLng)) {
+                    if (clusters.size() == limit) {
+                        return null;
+                    }
+                    clusters.add(new Cluster(point.lat, point.lng, 1, point.type, node.members[i]));
+                }
+            }
+        }
+        return clusters;
+    }
+
+    // null si hay más de limit celdas
+    private List<Cluster> clustersIn(double minLat, double minLng, double maxLat, double maxLng, int level, int limit) {
+        List<Node> nodes = cellsIn(minLat, minLng, maxLat, maxLng, level, limit);
+        if (nodes == null) {
+            return null;
+        }
+        List<Cluster> clusters = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            clusters.add(new Cluster(
+                    node.sumLat / node.count,
+                    node.sumLng / node.count,
+                    node.count,
+                    node.dominantType(),
+                    node.sampleId));
+        }
+        return clusters;
+    }
+
+    // null si hay más de limit celdas con puntos
+    private List<Node> cellsIn(double minLat, double minLng, double maxLat, double maxLng, int level, int limit) {
+        Map<Long, Node> cells = levels.get(level);
+        int minX = cellX(level, minLng);
+        int maxX = cellX(level, maxLng);
+        int minY = cellY(level, minLat);
+        int maxY = cellY(level, maxLat);
+        boolean wraps = minLng > maxLng; // viewport que cruza el antimeridiano
+
+        List<Node> nodes = new ArrayList<>();
+        long columns = wraps ? (cellsPerAxis(level) - minX) + maxX + 1L : maxX - minX + 1L;
+        long candidates = columns * (maxY - minY + 1L);
+
+        if (candidates > cells.size()) {
+            for (Map.Entry<Long, Node> entry : cells.entrySet()) {
+                int x = (int) (entry.getKey() >>> 32);
+                int y = (int) (long) entry.getKey();
+                boolean inX = wraps ? (x >= minX || x <= maxX) : (x >= minX && x <= maxX);
+                if (inX && y >= minY && y <= maxY) {
+                    if (nodes.size() == limit) {
+                        return null;
+                    }
+                    nodes.add(entry.getValue());
+                }
+            }
+            return nodes;
+        }
+
+        for (long i = 0; i < columns; i++) {
+            int x = (int) ((minX + i) % cellsPerAxis(level));
+            for (int y = minY; y <= maxY; y++) {
+                Node node = cells.get(pack(x, y));
+                if (node != null) {
+                    if (nodes.size() == limit) {
+                        return null;
+                    }
+                    nodes.add(node);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private long childSample(int level, long key) {
+        int x = (int) (key >>> 32);
+        int y = (int) key;
+        Map<Long, Node> children = levels.get(level + 1);
+        for (int dx = 0; dx <= 1; dx++) {
+            for (int dy = 0; dy <= 1; dy++) {
+                Node child = children.get(pack(2 * x + dx, 2 * y + dy));
+                if (child != null) {
+                    return child.sampleId;
+                }
+            }
+        }
+        throw new IllegalStateException("Celda sin hijos con puntos");
+    }
+
+    private static boolean contains(double lat, double lng, double minLat, double minLng, double maxLat, double maxLng) {
+        boolean inLng = minLng <= maxLng ? (lng >= minLng && lng <= maxLng) : (lng >= minLng || lng <= maxLng);
+        return inLng && lat >= minLat && lat <= maxLat;
+    }
+
+    private static long cellsPerAxis(int level) {
+        return 1L << level;
+    }
+
+    private static double cellDegrees(int level) {
+        return 360.0 / cellsPerAxis(level);
+    }
+
+    private static int cellX(int level, double lng) {
+        long x = (long) Math.floor((lng + 180.0) / cellDegrees(level));
+        return (int) Math.max(0, Math.min(cellsPerAxis(level) - 1, x));
+    }
+
+    private static int cellY(int level, double lat) {
+        long y = (long) Math.floor((lat + 90.0) / cellDegrees(level));
+        return (int) Math.max(0, Math.min(cellsPerAxis(level) - 1, y));
+    }
+
+    private static long key(int level, double lat, double lng) {
+        return pack(cellX(level, lng), cellY(level, lat));
+    }
+
+    private static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private record Point(double lat, double lng, int type) {
+    }
+
+    private static final class Node {
+        int count;
+        double sumLat;
+        double sumLng;
+        final int[] typeCounts;
+        long sampleId;
+
+        // Solo en el nivel más fino: ids de los puntos de la celda
+        long[] members;
+        int memberCount;
+
+        Node(int typeCount) {
+            this.typeCounts = new int[typeCount];
+        }
+
+        int dominantType() {
+            int best = 0;
+            for (int t = 1; t < typeCounts.length; t++) {
+                if (typeCounts[t] > typeCounts[best]) {
+                    best = t;
+                }
+            }
+            return best;
+        }
+
+        void addMember(long id) {
+            if (members == null) {
+                members = new long[2];
+            } else if (memberCount == members.length) {
+                members = Arrays.copyOf(members, memberCount * 2);
+            }
+            members[memberCount++] = id;
+        }
+
+        void removeMember(long id) {
+            for (int i = 0; i < memberCount; i++) {
+                if (members[i] == id) {
+                    members[i] = members[--memberCount];
+                    return;
+                }
+            }
+        }
+    }
+}
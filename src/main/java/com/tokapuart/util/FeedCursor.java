@@ -0,0 +1,42 @@
+package com.tokapuart.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginación por keyset sobre (createdAt, id), en orden descendente.
+ * El cliente solo ve un token base64url; el servidor lo decodifica a la última fila vista.
+ */
+public record FeedCursor(LocalDateTime createdAt, Long id) {
+
+    /**
+     * Cursor de la primera página: cualquier fila real es "anterior" a él.
+     */
+    public static final FeedCursor FIRST = new FeedCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    /**
+     * Cursor anterior a cualquier fila real: al sondear los posteriores a él sale todo desde el principio.
+     */
+    public static final FeedCursor BEGINNING = new FeedCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new FeedCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.tokapuart.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice espacial en una rejilla de celdas de tamaño fijo (en grados).
+ * Cada celda guarda ids y coordenadas en arreglos primitivos; las distancias se
+ * filtran con haversine y los resultados salen ordenados por distancia.
+ * No es thread-safe: quien lo use debe sincronizar el acceso.
+ */
+public class GeoGridIndex {
+
+    public record Hit(long id, double distanceMeters) {
+    }
+
+    private static final Comparator<Hit> BY_DISTANCE = Comparator.comparingDouble(Hit::distanceMeters);
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int cols;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Long, Long> cellKeyById = new HashMap<>();
+
+    public GeoGridIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180.0 / cellDegrees) + 1;
+        this.cols = (int) Math.ceil(360.0 / cellDegrees);
+    }
+
+    public int size() {
+        return cellKeyById.size();
+    }
+
+    public void clear() {
+        cells.clear();
+        cellKeyById.clear();
+    }
+
+    public void put(long id, double lat, double lng) {
+        remove(id);
+        long key = key(row(lat), col(lng));
+        cells.computeIfAbsent(key, k -> new Cell()).add(id, lat, lng);
+        cellKeyById.put(id, key);
+    }
+
+    public boolean remove(long id) {
+        Long key = cellKeyById.remove(id);
+        if (key == null) {
+            return false;
+        }
+        Cell cell = cells.get(key);
+        cell.remove(id);
+        if (cell.size == 0) {
+            cells.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * Todos los puntos a menos de radiusMeters, del más cercano al más lejano.
+     */
+    public List<Hit> withinRadius(double lat, double lng, double radiusMeters) {
+        List<Hit> hits = new ArrayList<>();
+
+        double latDelta = radiusMeters / GeoUtils.METERS_PER_DEGREE;
+        int minRow = row(lat - latDelta);
+        int maxRow = row(lat + latDelta);
+        double widestLat = Math.max(Math.abs(lat - latDelta), Math.abs(lat + latDelta));
+        double lngDelta = radiusMeters / GeoUtils.metersPerDegreeLongitude(widestLat);
+
+        int minCol = rawCol(lng - lngDelta);
+        int maxCol = rawCol(lng + lngDelta);
+        if (maxCol - minCol + 1 >= cols) {
+            minCol = 0;
+            maxCol = cols - 1;
+        }
+
+        long candidateCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (candidateCells > cells.size()) {
+            // Radio muy grande para la densidad del índice: recorrer solo las celdas ocupadas
+            for (Cell cell : cells.values()) {
+                cell.collectWithin(lat, lng, radiusMeters, hits);
+            }
+        } else {
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = minCol; c <= maxCol; c++) {
+                    Cell cell = cells.get(key(r, Math.floorMod(c, cols)));
+                    if (cell != null) {
+                        cell.collectWithin(lat, lng, radiusMeters, hits);
+                    }
+                }
+            }
+        }
+
+        hits.sort(BY_DISTANCE);
+        return hits;
+    }
+
+    /**
+     * Los k puntos más cercanos dentro de maxRadiusMeters, recorriendo anillos de celdas
+     * alrededor del centro hasta que ninguna celda pendiente pueda mejorar el resultado.
+     */
+    public List<Hit> nearest(double lat, double lng, int k, double maxRadiusMeters) {
+        PriorityQueue<Hit> best = new PriorityQueue<>(BY_DISTANCE.reversed());
+        if (k <= 0 || cells.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        int centerRow = row(lat);
+        int centerCol = rawCol(lng);
+        long visitedCells = 0;
+
+        for (int ring = 0; ; ring++) {
+            double maxAbsLat = Math.min(90.0, Math.abs(lat) + (ring + 1) * cellDegrees);
+            double cellMeters = cellDegrees * Math.min(GeoUtils.METERS_PER_DEGREE, GeoUtils.metersPerDegreeLongitude(maxAbsLat));
+            double lowerBound = Math.max(0, ring - 1) * cellMeters;
+            if (lowerBound > maxRadiusMeters || (best.size() == k && best.peek().distanceMeters() <= lowerBound)) {
+                break;
+            }
+
+            visitedCells += Math.max(1, 8L * ring);
+            if (2 * ring + 1 >= cols || visitedCells > 2L * cells.size() + 64) {
+                // Los anillos ya cubren más celdas de las que existen: recorrer todo el índice
+                best.clear();
+                for (Cell cell : cells.values()) {
+                    cell.offerNearest(lat, lng, k, maxRadiusMeters, best);
+                }
+                break;
+            }
+
+            for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                boolean edgeRow = Math.abs(r - centerRow) == ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = centerCol - ring; c <= centerCol + ring; c += step) {
+                    Cell cell = cells.get(key(r, Math.floorMod(c, cols)));
+                    if (cell != null) {
+                        cell.offerNearest(lat, lng, k, maxRadiusMeters, best);
+                    }
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(BY_DISTANCE);
+        return hits;
+    }
+
+    private int row(double lat) {
+        int r = (int) Math.floor((lat + 90.0) / cellDegrees);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+
+    private int rawCol(double lng) {
+        return (int) Math.floor((lng + 180.0) / cellDegrees);
+    }
+
+    private int col(double lng) {
+        return Math.floorMod(rawCol(lng), cols);
+    }
+
+    private long key(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    private static final class Cell {
+        long[] ids = new long[4];
+        double[] lats = new double[4];
+        double[] lngs = new double[4];
+        int size;
+
+        void add(long id, double lat, double lng) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                lats = Arrays.copyOf(lats, size * 2);
+                lngs = Arrays.copyOf(lngs, size * 2);
+            }
+            ids[size] = id;
+            lats[size] = lat;
+            lngs[size] = lng;
+            size++;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    lats[i] = lats[size];
+                    lngs[i] = lngs[size];
+                    return;
+                }
+            }
+        }
+
+        void collectWithin(double lat, double lng, double radiusMeters, List<Hit> out) {
+            for (int i = 0; i < size; i++) {
+                double d = GeoUtils.haversineMeters(lat, lng, lats[i], lngs[i]);
+                if (d <= radiusMeters) {
+                    out.add(new Hit(ids[i], d));
+                }
+            }
+        }
+
+        void offerNearest(double lat, double lng, int k, double maxRadiusMeters, PriorityQueue<Hit> best) {
+            for (int i = 0; i < size; i++) {
+                double d = GeoUtils.haversineMeters(lat, lng, lats[i], lngs[i]);
+                if (d > maxRadiusMeters) {
+                    continue;
+                }
+                if (best.size() < k) {
+                    best.add(new Hit(ids[i], d));
+                } else if (d < best.peek().distanceMeters()) {
+                    best.poll();
+                    best.add(new Hit(ids[i], d));
+                }
+            }
+        }
+    }
+}
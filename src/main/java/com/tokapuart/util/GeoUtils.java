@@ -0,0 +1,28 @@
+package com.tokapuart.util;
+
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    // Metros por grado de latitud (aprox. constante)
+    public static final double METERS_PER_DEGREE = 111_320.0;
+
+    private GeoUtils() {
+    }
+
+    public static double haversineMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Metros que mide un grado de longitud a la latitud dada.
+     */
+    public static double metersPerDegreeLongitude(double lat) {
+        return METERS_PER_DEGREE * Math.max(Math.cos(Math.toRadians(Math.min(Math.abs(lat), 89.999))), 1e-9);
+    }
+}
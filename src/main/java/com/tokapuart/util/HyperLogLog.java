@@ -0,0 +1,219 @@
+package com.tokapuart.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Sketch HyperLogLog para contar elementos distintos (error típico ~0,8 %).
+ * Usa 2^14 registros de 6 bits: en forma densa ocupa 12 KB empaquetados. Mientras hay
+ * pocos elementos se guarda en forma dispersa, una lista ordenada de (registro, valor)
+ * que se serializa en unos pocos bytes, y pasa a densa al crecer.
+ * No es thread-safe.
+ */
+public class HyperLogLog {
+
+    private static final int PRECISION = 14;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final int DENSE_BYTES = REGISTERS * 6 / 8;
+    private static final int SPARSE_MAX = 2048;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private static final byte SPARSE = 1;
+    private static final byte DENSE = 2;
+
+    // Forma dispersa: entradas (registro << 6 | valor) ordenadas por registro; null si es densa
+    private int[] sparse = new int[8];
+    private int sparseSize;
+
+    // Forma densa: registros de 6 bits empaquetados
+    private byte[] dense;
+
+    public void add(String value) {
+        addHash(hash(value));
+    }
+
+    public void addHash(long hash) {
+        int register = (int) (hash >>> (64 - PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        set(register, rank);
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.dense != null) {
+            for (int register = 0; register < REGISTERS; register++) {
+                int rank = get(other.dense, register);
+                if (rank > 0) {
+                    set(register, rank);
+                }
+            }
+        } else {
+            for (int i = 0; i < other.sparseSize; i++) {
+                set(other.sparse[i] >>> 6, other.sparse[i] & 0x3F);
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        if (dense != null) {
+            for (int register = 0; register < REGISTERS; register++) {
+                int rank = get(dense, register);
+                sum += 1.0 / (1L << rank);
+                if (rank == 0) {
+                    zeros++;
+                }
+            }
+        } else {
+            zeros = REGISTERS - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += 1.0 / (1L << (sparse[i] & 0x3F));
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Rango bajo: conteo lineal sobre los registros vacíos
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        if (dense != null) {
+            byte[] bytes = new byte[DENSE_BYTES + 1];
+            bytes[0] = DENSE;
+            System.arraycopy(dense, 0, bytes, 1, DENSE_BYTES);
+            return bytes;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + sparseSize * 3);
+        out.write(SPARSE);
+        writeVarInt(out, sparseSize);
+        int previous = 0;
+        for (int i = 0; i < sparseSize; i++) {
+            writeVarInt(out, sparse[i] - previous);
+            previous = sparse[i];
+        }
+        return out.toByteArray();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        if (bytes[0] == DENSE) {
+            if (bytes.length != DENSE_BYTES + 1) {
+                throw new IllegalArgumentException("Sketch HyperLogLog inválido");
+            }
+            sketch.sparse = null;
+            sketch.dense = Arrays.copyOfRange(bytes, 1, bytes.length);
+            return sketch;
+        }
+        int[] position = {1};
+        int count = readVarInt(bytes, position);
+        int entry = 0;
+        for (int i = 0; i < count; i++) {
+            entry += readVarInt(bytes, position);
+            sketch.set(entry >>> 6, entry & 0x3F);
+        }
+        return sketch;
+    }
+
+    /**
+     * Hash de 64 bits (FNV-1a con el mezclador final de MurmurHash3).
+     */
+    public static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private void set(int register, int rank) {
+        if (dense != null) {
+            if (rank > get(dense, register)) {
+                put(dense, register, rank);
+            }
+            return;
+        }
+        int key = register << 6;
+        int index = Arrays.binarySearch(sparse, 0, sparseSize, key);
+        if (index < 0) {
+            // Buscar por registro: la entrada existente tiene el mismo registro y otro valor
+            int insertion = -index - 1;
+            if (insertion < sparseSize && sparse[insertion] >>> 6 == register) {
+                if (rank > (sparse[insertion] & 0x3F)) {
+                    sparse[insertion] = key | rank;
+                }
+                return;
+            }
+            if (sparseSize == SPARSE_MAX) {
+                toDense();
+                set(register, rank);
+                return;
+            }
+            if (sparseSize == sparse.length) {
+                sparse = Arrays.copyOf(sparse, sparse.length * 2);
+            }
+            System.arraycopy(sparse, insertion, sparse, insertion + 1, sparseSize - insertion);
+            sparse[insertion] = key | rank;
+            sparseSize++;
+        }
+    }
+
+    private void toDense() {
+        dense = new byte[DENSE_BYTES];
+        for (int i = 0; i < sparseSize; i++) {
+            put(dense, sparse[i] >>> 6, sparse[i] & 0x3F);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private static int get(byte[] registers, int register) {
+        int bit = register * 6;
+        int index = bit >>> 3;
+        int window = (registers[index] & 0xFF) | (index + 1 < registers.length ? (registers[index + 1] & 0xFF) << 8 : 0);
+        return (window >>> (bit & 7)) & 0x3F;
+    }
+
+    private static void put(byte[] registers, int register, int rank) {
+        int bit = register * 6;
+        int index = bit >>> 3;
+        int shift = bit & 7;
+        int window = (registers[index] & 0xFF) | (index + 1 < registers.length ? (registers[index + 1] & 0xFF) << 8 : 0);
+        window = (window & ~(0x3F << shift)) | (rank << shift);
+        registers[index] = (byte) window;
+        if (index + 1 < registers.length) {
+            registers[index + 1] = (byte) (window >>> 8);
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(byte[] bytes, int[] position) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.tokapuart.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+/**
+ * Índice invertido en memoria con ranking BM25.
+ * Cada documento tiene varios campos con peso propio (p. ej. el título pesa más que la
+ * descripción): la frecuencia de un término es la suma ponderada de sus apariciones,
+ * y la longitud del documento se pondera igual. No es thread-safe.
+ */
+public class InvertedIndex {
+
+    public record ScoredDoc(long id, double score) {
+    }
+
+    public record SearchResult(List<ScoredDoc> hits, int totalHits) {
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final float[] fieldBoosts;
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private double totalLength;
+
+    public InvertedIndex(float... fieldBoosts) {
+        this.fieldBoosts = fieldBoosts;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Indexa (o reindexa) un documento; los campos van en el mismo orden que los pesos.
+     */
+    public void put(long id, String... fields) {
+        remove(id);
+
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        for (int f = 0; f < fields.length && f < fieldBoosts.length; f++) {
+            for (String term : TextAnalyzer.analyze(fields[f])) {
+                frequencies.merge(term, fieldBoosts[f], Float::sum);
+                length += fieldBoosts[f];
+            }
+        }
+        if (frequencies.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+            postingsByTerm.computeIfAbsent(entry.getKey(), t -> new Postings()).add(id, entry.getValue());
+        }
+        documents.put(id, new Document(frequencies.keySet().toArray(new String[0]), length));
+        totalLength += length;
+    }
+
+    public boolean remove(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return false;
+        }
+        for (String term : document.terms) {
+            Postings postings = postingsByTerm.get(term);
+            postings.remove(id);
+            if (postings.size == 0) {
+                postingsByTerm.remove(term);
+            }
+        }
+        totalLength -= document.length;
+        return true;
+    }
+
+    /**
+     * Documentos que contienen algún término de la consulta, del más relevante al menos
+     * relevante, limitado a los primeros maxHits.
+     */
+    public SearchResult search(String query, int maxHits) {
+        return search(query, maxHits, null);
+    }
+
+    /**
+     * Igual que search(query, maxHits), pero solo puntúa los documentos que acepta el filtro.
+     */
+    public SearchResult search(String query, int maxHits, LongPredicate filter) {
+        if (documents.isEmpty() || maxHits <= 0) {
+            return new SearchResult(new ArrayList<>(), 0);
+        }
+
+        int n = documents.size();
+        double avgLength = totalLength / n;
+        Map<Long, double[]> scores = new HashMap<>();
+
+        for (String term : new LinkedHashSet<>(TextAnalyzer.analyze(query))) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (n - postings.size + 0.5) / (postings.size + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                long id = postings.ids[i];
+                if (filter != null && !filter.test(id)) {
+                    continue;
+                }
+                double tf = postings.frequencies[i];
+                double norm = K1 * (1 - B + B * documents.get(id).length / avgLength);
+                scores.computeIfAbsent(id, k -> new double[1])[0] += idf * tf * (K1 + 1) / (tf + norm);
+            }
+        }
+
+        Comparator<ScoredDoc> ranking = Comparator.comparingDouble(ScoredDoc::score)
+                .thenComparing(ScoredDoc::id, Comparator.reverseOrder());
+        PriorityQueue<ScoredDoc> top = new PriorityQueue<>(ranking);
+        for (Map.Entry<Long, double[]> entry : scores.entrySet()) {
+            ScoredDoc doc = new ScoredDoc(entry.getKey(), entry.getValue()[0]);
+            if (top.size() < maxHits) {
+                top.add(doc);
+            } else if (ranking.compare(doc, top.peek()) > 0) {
+                top.poll();
+                top.add(doc);
+            }
+        }
+
+        List<ScoredDoc> hits = new ArrayList<>(top);
+        hits.sort(ranking.reversed());
+        return new SearchResult(hits, scores.size());
+    }
+
+    private record Document(String[] terms, float length) {
+    }
+
+    private static final class Postings {
+        long[] ids = new long[4];
+        float[] frequencies = new float[4];
+        int size;
+
+        void add(long id, float frequency) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ids[size] = id;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    frequencies[i] = frequencies[size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.tokapuart.util;
+
+/**
+ * Mapa long → byte con direccionamiento abierto sobre arreglos primitivos; mismo esquema que
+ * LongHashSet. get devuelve -1 si la clave no está, así que los valores deben ser >= 0.
+ * No es thread-safe.
+ */
+public class LongByteHashMap {
+
+    public static final byte ABSENT = -1;
+
+    private long[] keys;
+    private byte[] values;
+    private int size;
+    private byte zeroValue = ABSENT;
+
+    public LongByteHashMap() {
+        this(8);
+    }
+
+    public LongByteHashMap(int expected) {
+        int capacity = LongHashSet.tableSize(expected);
+        keys = new long[capacity];
+        values = new byte[capacity];
+    }
+
+    public int size() {
+        return size + (zeroValue != ABSENT ? 1 : 0);
+    }
+
+    public byte get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        for (int slot = LongHashSet.slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return ABSENT;
+    }
+
+    public void put(long key, byte value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Valor negativo: " + value);
+        }
+        if (key == 0) {
+            zeroValue = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = LongHashSet.slot(key, mask);
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Devuelve el valor que tenía la clave, o ABSENT.
+     */
+    public byte remove(long key) {
+        if (key == 0) {
+            byte previous = zeroValue;
+            zeroValue = ABSENT;
+            return previous;
+        }
+        int mask = keys.length - 1;
+        for (int slot = LongHashSet.slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                byte previous = values[slot];
+                shiftBack(slot, mask);
+                size--;
+                return previous;
+            }
+        }
+        return ABSENT;
+    }
+
+    private void shiftBack(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == 0) {
+                break;
+            }
+            int home = LongHashSet.slot(key, mask);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        byte[] oldValues = values;
+        keys = new long[capacity];
+        values = new byte[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = LongHashSet.slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
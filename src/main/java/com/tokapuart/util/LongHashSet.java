@@ -0,0 +1,131 @@
+package com.tokapuart.util;
+
+/**
+ * Conjunto de long con direccionamiento abierto (sondeo lineal) sobre un arreglo primitivo,
+ * sin objetos Long por elemento. El 0 se guarda aparte porque marca las casillas libres.
+ * No es thread-safe.
+ */
+public class LongHashSet {
+
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private int size;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(8);
+    }
+
+    public LongHashSet(int expected) {
+        keys = new long[tableSize(expected)];
+    }
+
+    public int size() {
+        return size + (hasZero ? 1 : 0);
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return hasZero;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Devuelve false si ya estaba.
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            boolean added = !hasZero;
+            hasZero = true;
+            return added;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return false;
+            }
+        }
+        keys[slot] = key;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve false si no estaba.
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            boolean removed = hasZero;
+            hasZero = false;
+            return removed;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                shiftBack(slot, mask);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Borrado sin lápidas: adelanta las claves siguientes del mismo grupo para no cortar su sondeo.
+     */
+    private void shiftBack(int gap, int mask) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == 0) {
+                break;
+            }
+            int home = slot(key, mask);
+            // La clave puede ocupar el hueco si su posición ideal no cae entre el hueco y ella
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = key;
+                gap = slot;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] old = keys;
+        keys = new long[capacity];
+        int mask = capacity - 1;
+        for (long key : old) {
+            if (key != 0) {
+                int slot = slot(key, mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    static int slot(long key, int mask) {
+        return (int) ((key * PHI) >>> 32) & mask;
+    }
+
+    static int tableSize(int expected) {
+        int capacity = 8;
+        while (capacity * 3 < expected * 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
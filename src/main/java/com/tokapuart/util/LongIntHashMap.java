@@ -0,0 +1,103 @@
+package com.tokapuart.util;
+
+/**
+ * Contadores long → int con direccionamiento abierto sobre arreglos primitivos; mismo
+ * esquema que LongHashSet. Una clave ausente vale 0. No es thread-safe.
+ */
+public class LongIntHashMap {
+
+    /**
+     * Recibe cada par (clave, valor) al recorrer el mapa.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private boolean hasZero;
+    private int zeroValue;
+
+    public LongIntHashMap() {
+        this(8);
+    }
+
+    public LongIntHashMap(int expected) {
+        int capacity = LongHashSet.tableSize(expected);
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() {
+        return size + (hasZero ? 1 : 0);
+    }
+
+    public int get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        for (int slot = LongHashSet.slot(key, mask); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Suma delta al valor de la clave (0 si no estaba) y devuelve el resultado.
+     */
+    public int addTo(long key, int delta) {
+        if (key == 0) {
+            hasZero = true;
+            zeroValue += delta;
+            return zeroValue;
+        }
+        int mask = keys.length - 1;
+        int slot = LongHashSet.slot(key, mask);
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        return delta;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZero) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = LongHashSet.slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.tokapuart.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para resultados ordenados por relevancia, donde no hay una columna
+ * estable sobre la que hacer keyset: guarda la posición dentro del ranking.
+ */
+public record RankCursor(int offset) {
+
+    public static final RankCursor FIRST = new RankCursor(0);
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("r|" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RankCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith("r|")) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            int offset = Integer.parseInt(raw.substring(2));
+            if (offset < 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new RankCursor(offset);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
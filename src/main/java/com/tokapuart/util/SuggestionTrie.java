@@ -0,0 +1,304 @@
+package com.tokapuart.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Trie comprimido (radix) para autocompletar.
+ * Cada texto se indexa desde el inicio de cada una de sus palabras, así "calle" sugiere
+ * "Mural de la calle". Cada nodo guarda el peso máximo de su subárbol, de modo que las
+ * k mejores sugerencias para un prefijo salen con una búsqueda best-first sin recorrer
+ * todo el subárbol. Un mismo texto puede venir de varias fuentes (p. ej. una ciudad con
+ * muchas obras): se cuentan las referencias y se suman sus pesos. No es thread-safe.
+ */
+public class SuggestionTrie {
+
+    public record Suggestion(String text, int kind, long weight) {
+    }
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    private static final int MAX_WORD_KEYS = 8;
+
+    private final Node root = new Node("");
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Suma una referencia al texto con el peso dado.
+     */
+    public void add(String text, int kind, long weight) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String entryKey = kind + ":" + normalized;
+        Entry entry = entries.get(entryKey);
+        if (entry == null) {
+            entry = new Entry(text.trim(), kind, wordKeys(normalized));
+            entries.put(entryKey, entry);
+            entry.refs = 1;
+            entry.weight = weight;
+            for (String key : entry.keys) {
+                insert(key, entry);
+            }
+            return;
+        }
+        entry.refs++;
+        entry.weight += weight;
+        for (String key : entry.keys) {
+            refreshMax(key);
+        }
+    }
+
+    /**
+     * Quita una referencia añadida con add(text, kind, weight); el texto desaparece al quedar sin referencias.
+     */
+    public void remove(String text, int kind, long weight) {
+        String entryKey = kind + ":" + normalize(text);
+        Entry entry = entries.get(entryKey);
+        if (entry == null) {
+            return;
+        }
+        entry.refs--;
+        entry.weight -= weight;
+        if (entry.refs <= 0) {
+            entries.remove(entryKey);
+            for (String key : entry.keys) {
+                delete(key, entry);
+            }
+            return;
+        }
+        for (String key : entry.keys) {
+            refreshMax(key);
+        }
+    }
+
+    /**
+     * Las sugerencias de mayor peso cuyo texto (o alguna de sus palabras) empieza por el prefijo.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        List<Suggestion> suggestions = new ArrayList<>();
+        if (normalized.isEmpty() || limit <= 0) {
+            return suggestions;
+        }
+
+        Node start = locate(normalized);
+        if (start == null) {
+            return suggestions;
+        }
+
+        // Los nodos entran con su peso máximo como cota; una entrada sale antes que cualquier nodo con igual cota
+        PriorityQueue<Object> queue = new PriorityQueue<>((a, b) -> {
+            int byWeight = Long.compare(bound(b), bound(a));
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            if (a instanceof Entry ea && b instanceof Entry eb) {
+                return ea.text.compareTo(eb.text);
+            }
+            return a instanceof Entry ? -1 : (b instanceof Entry ? 1 : 0);
+        });
+        queue.add(start);
+
+        Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        while (!queue.isEmpty() && suggestions.size() < limit) {
+            Object next = queue.poll();
+            if (next instanceof Entry entry) {
+                if (seen.add(entry)) {
+                    suggestions.add(new Suggestion(entry.text, entry.kind, entry.weight));
+                }
+                continue;
+            }
+            Node node = (Node) next;
+            queue.addAll(node.entries);
+            queue.addAll(node.children.values());
+        }
+        return suggestions;
+    }
+
+    private static long bound(Object item) {
+        return item instanceof Entry entry ? entry.weight : ((Node) item).max;
+    }
+
+    private Node locate(String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(pos));
+            if (child == null) {
+                return null;
+            }
+            int remaining = prefix.length() - pos;
+            if (remaining <= child.label.length()) {
+                return child.label.startsWith(prefix.substring(pos)) ? child : null;
+            }
+            if (!prefix.startsWith(child.label, pos)) {
+                return null;
+            }
+            pos += child.label.length();
+            node = child;
+        }
+        return node;
+    }
+
+    private void insert(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            char first = key.charAt(pos);
+            Node child = node.children.get(first);
+            if (child == null) {
+                child = new Node(key.substring(pos));
+                node.children.put(first, child);
+                pos = key.length();
+            } else {
+                int common = commonPrefix(child.label, key, pos);
+                if (common < child.label.length()) {
+                    // Partir la arista: nodo intermedio con el tramo común
+                    Node middle = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    middle.children.put(child.label.charAt(0), child);
+                    middle.max = child.max;
+                    node.children.put(first, middle);
+                    child = middle;
+                }
+                pos += common;
+            }
+            node = child;
+            path.add(node);
+        }
+        if (!node.entries.contains(entry)) {
+            node.entries.add(entry);
+        }
+        recompute(path);
+    }
+
+    private void delete(String key, Entry entry) {
+        List<Node> path = path(key);
+        if (path == null) {
+            return;
+        }
+        Node node = path.get(path.size() - 1);
+        node.entries.remove(entry);
+
+        // Podar nodos vacíos y fusionar los que quedan con un único hijo
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node current = path.get(i);
+            Node parent = path.get(i - 1);
+            if (current.entries.isEmpty() && current.children.isEmpty()) {
+                parent.children.remove(current.label.charAt(0));
+                path.remove(i);
+            } else if (current.entries.isEmpty() && current.children.size() == 1) {
+                Node only = current.children.values().iterator().next();
+                only.label = current.label + only.label;
+                parent.children.put(only.label.charAt(0), only);
+                path.set(i, only);
+            }
+        }
+        recompute(path);
+    }
+
+    private void refreshMax(String key) {
+        List<Node> path = path(key);
+        if (path != null) {
+            recompute(path);
+        }
+    }
+
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int pos = 0;
+        while (pos < key.length()) {
+            Node child = node.children.get(key.charAt(pos));
+            if (child == null || !key.startsWith(child.label, pos)) {
+                return null;
+            }
+            pos += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private static void recompute(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            long max = Long.MIN_VALUE;
+            for (Entry entry : node.entries) {
+                max = Math.max(max, entry.weight);
+            }
+            for (Node child : node.children.values()) {
+                max = Math.max(max, child.max);
+            }
+            node.max = max;
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int n = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String normalize(String text) {
+        return SEPARATORS.matcher(TextAnalyzer.fold(text)).replaceAll(" ").trim();
+    }
+
+    /**
+     * El texto completo y el resto del texto a partir de cada palabra ("la calle", "calle").
+     */
+    private static List<String> wordKeys(String normalized) {
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0 && keys.size() < MAX_WORD_KEYS; i = normalized.indexOf(' ', i + 1)) {
+            String key = normalized.substring(i + 1);
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static final class Entry {
+        final String text;
+        final int kind;
+        final List<String> keys;
+        long weight;
+        int refs;
+
+        Entry(String text, int kind, List<String> keys) {
+            this.text = text;
+            this.kind = kind;
+            this.keys = keys;
+        }
+    }
+
+    private static final class Node {
+        String label;
+        final Map<Character, Node> children = new HashMap<>();
+        final List<Entry> entries = new ArrayList<>(1);
+        long max = Long.MIN_VALUE;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
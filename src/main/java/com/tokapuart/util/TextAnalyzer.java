@@ -0,0 +1,74 @@
+package com.tokapuart.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Análisis de texto en español para los índices en memoria: minúsculas, eliminación
+ * de tildes, tokenización, stopwords y un stemmer ligero (reglas del SpanishLightStemmer de Lucene).
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "es", "la", "las", "lo", "los", "o", "para",
+            "por", "que", "se", "sin", "su", "sus", "un", "una", "unos", "unas", "y");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Minúsculas y sin tildes ("Mural Ñuñoa" -> "mural nunoa").
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String token : NON_ALPHANUMERIC.split(fold(text))) {
+            if (!token.isEmpty() && !STOPWORDS.contains(token)) {
+                terms.add(stem(token));
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String token) {
+        int len = token.length();
+        if (len < 5) {
+            return token;
+        }
+        char last = token.charAt(len - 1);
+        switch (last) {
+            case 'o':
+            case 'a':
+            case 'e':
+                return token.substring(0, len - 1);
+            case 's':
+                char prev = token.charAt(len - 2);
+                if (prev == 'e' && token.charAt(len - 3) == 's' && token.charAt(len - 4) == 'e') {
+                    return token.substring(0, len - 2);
+                }
+                if (prev == 'e' && token.charAt(len - 3) == 'c') {
+                    return token.substring(0, len - 3) + "z";
+                }
+                if (prev == 'o' || prev == 'a' || prev == 'e') {
+                    return token.substring(0, len - 2);
+                }
+                return token;
+            default:
+                return token;
+        }
+    }
+}
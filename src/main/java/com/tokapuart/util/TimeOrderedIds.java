@@ -0,0 +1,138 @@
+package com.tokapuart.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Lista inmutable de pares (instante, id) ordenada de más reciente a más antiguo, con el
+ * mismo orden que FeedCursor: por instante descendente y, a igualdad, por id descendente.
+ * Los instantes son microsegundos desde la época. Cada modificación devuelve una copia,
+ * así una lista publicada se puede leer desde varios hilos sin bloqueo.
+ */
+public final class TimeOrderedIds {
+
+    public static final TimeOrderedIds EMPTY = new TimeOrderedIds(new long[0], new long[0]);
+
+    private final long[] times;
+    private final long[] ids;
+
+    private TimeOrderedIds(long[] times, long[] ids) {
+        this.times = times;
+        this.ids = ids;
+    }
+
+    /**
+     * Construye la lista a partir de pares en cualquier orden; los arrays pasan a ser de la lista.
+     */
+    public static TimeOrderedIds of(long[] times, long[] ids, int size) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compare(times[b], ids[b], times[a], ids[a]));
+        long[] sortedTimes = new long[size];
+        long[] sortedIds = new long[size];
+        for (int i = 0; i < size; i++) {
+            sortedTimes[i] = times[order[i]];
+            sortedIds[i] = ids[order[i]];
+        }
+        return new TimeOrderedIds(sortedTimes, sortedIds);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long time(int index) {
+        return times[index];
+    }
+
+    public long id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Posición del primer par estrictamente anterior a (time, id); size() si no hay ninguno.
+     */
+    public int firstBefore(long time, long id) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(times[mid], ids[mid], time, id) >= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copia con el par añadido en su posición, sin superar maxSize (se descartan los más antiguos).
+     */
+    public TimeOrderedIds with(long time, long id, int maxSize) {
+        if (indexOf(id) >= 0) {
+            return this;
+        }
+        int insertion = firstBefore(time, id);
+        if (insertion >= maxSize) {
+            return this;
+        }
+        int size = Math.min(ids.length + 1, maxSize);
+        long[] newTimes = new long[size];
+        long[] newIds = new long[size];
+        System.arraycopy(times, 0, newTimes, 0, insertion);
+        System.arraycopy(ids, 0, newIds, 0, insertion);
+        newTimes[insertion] = time;
+        newIds[insertion] = id;
+        System.arraycopy(times, insertion, newTimes, insertion + 1, size - insertion - 1);
+        System.arraycopy(ids, insertion, newIds, insertion + 1, size - insertion - 1);
+        return new TimeOrderedIds(newTimes, newIds);
+    }
+
+    /**
+     * Copia sin el id; la misma lista si no estaba.
+     */
+    public TimeOrderedIds without(long id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return this;
+        }
+        long[] newTimes = new long[ids.length - 1];
+        long[] newIds = new long[ids.length - 1];
+        System.arraycopy(times, 0, newTimes, 0, index);
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(times, index + 1, newTimes, index, ids.length - index - 1);
+        System.arraycopy(ids, index + 1, newIds, index, ids.length - index - 1);
+        return new TimeOrderedIds(newTimes, newIds);
+    }
+
+    // Búsqueda lineal: las listas por autor son cortas y el borrado es raro
+    private int indexOf(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Orden de FeedCursor: positivo si (timeA, idA) es más reciente que (timeB, idB).
+     */
+    public static int compare(long timeA, long idA, long timeB, long idB) {
+        int byTime = Long.compare(timeA, timeB);
+        return byTime != 0 ? byTime : Long.compare(idA, idB);
+    }
+
+    public static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,3 @@
+-- La compactación busca los fragmentos con delta distinto de cero; los que quedan a cero
+-- se conservan para reutilizarlos, así que sin índice recorrería la tabla entera
+CREATE INDEX idx_counter_shards_delta ON artwork_counter_shards (delta);
@@ -0,0 +1,4 @@
+-- Índices compuestos para la paginación por keyset (created_at, id) del feed
+CREATE INDEX idx_artworks_status_created ON artworks (status, created_at, id);
+CREATE INDEX idx_artworks_user_created ON artworks (user_id, created_at, id);
+CREATE INDEX idx_artworks_type_status_created ON artworks (artwork_type, status, created_at, id);
@@ -0,0 +1,8 @@
+-- Contadores fragmentados para obras con mucha actividad (artworks.counters.sharded=true)
+CREATE TABLE IF NOT EXISTS artwork_counter_shards (
+    artwork_id BIGINT NOT NULL,
+    counter_type VARCHAR(20) NOT NULL,
+    shard INT NOT NULL,
+    delta BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (artwork_id, counter_type, shard)
+);
@@ -0,0 +1,2 @@
+-- Índice para la paginación por keyset (created_at, id) de los favoritos de un usuario
+CREATE INDEX idx_favorites_user_created ON favorites (user_id, created_at, id);
@@ -0,0 +1,11 @@
+-- Visitantes distintos por obra y por artista como sketches HyperLogLog (<= 12 KB cada uno)
+CREATE TABLE IF NOT EXISTS viewer_sketches (
+    scope VARCHAR(10) NOT NULL,
+    owner_id BIGINT NOT NULL,
+    sketch VARBINARY(12300) NOT NULL,
+    updated_at TIMESTAMP NULL,
+    PRIMARY KEY (scope, owner_id)
+);
+
+-- Estimación ya calculada para no leer el sketch al listar obras
+ALTER TABLE artworks ADD COLUMN unique_viewers INT DEFAULT 0;
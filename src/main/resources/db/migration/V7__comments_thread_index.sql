@@ -0,0 +1,2 @@
+-- Índice para la paginación por keyset (created_at, id) de los comentarios de una obra
+CREATE INDEX idx_comments_artwork_created ON comments (artwork_id, created_at, id);
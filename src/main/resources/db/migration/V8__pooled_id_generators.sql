@@ -0,0 +1,19 @@
+-- Ids por tabla con optimizador pooled para poder agrupar inserts en lotes JDBC.
+-- Hibernate lee next_val = v y reserva [v - 48, v + 1] (bloques de 50, IdGenerators.ALLOCATION_SIZE),
+-- por eso se siembra con MAX(id) + 49: el primer bloque empieza justo después del último id.
+-- IdGeneratorAligner repite este ajuste al arrancar, así que aplicarlo tarde no provoca choques.
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'users', COALESCE(MAX(id), 0) + 49 FROM users;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'artworks', COALESCE(MAX(id), 0) + 49 FROM artworks;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'comments', COALESCE(MAX(id), 0) + 49 FROM comments;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'artwork_photos', COALESCE(MAX(id), 0) + 49 FROM artwork_photos;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'followers', COALESCE(MAX(id), 0) + 49 FROM followers;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'validations', COALESCE(MAX(id), 0) + 49 FROM validations;
+
+-- Las columnas id conservan AUTO_INCREMENT: Hibernate envía el id explícito y MySQL lo
+-- acepta, y favorites / artwork_reactions siguen insertándose con INSERT IGNORE sin id.
@@ -0,0 +1,20 @@
+-- Contadores del perfil de usuario, mantenidos con incrementos relativos (UserStatsService)
+CREATE TABLE IF NOT EXISTS user_stats (
+    user_id BIGINT NOT NULL,
+    artworks_count BIGINT NOT NULL DEFAULT 0,
+    favorites_count BIGINT NOT NULL DEFAULT 0,
+    comments_count BIGINT NOT NULL DEFAULT 0,
+    followers_count BIGINT NOT NULL DEFAULT 0,
+    following_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id)
+);
+
+-- Relleno inicial; si se omite, la aplicación lo hace al arrancar por tramos de usuarios
+INSERT IGNORE INTO user_stats (user_id, artworks_count, favorites_count, comments_count, followers_count, following_count)
+SELECT u.id,
+       (SELECT COUNT(*) FROM artworks a WHERE a.user_id = u.id),
+       (SELECT COUNT(*) FROM favorites f WHERE f.user_id = u.id),
+       (SELECT COUNT(*) FROM comments c WHERE c.user_id = u.id),
+       (SELECT COUNT(*) FROM followers f WHERE f.following_id = u.id),
+       (SELECT COUNT(*) FROM followers f WHERE f.follower_id = u.id)
+FROM users u;
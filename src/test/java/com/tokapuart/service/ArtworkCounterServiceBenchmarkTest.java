@@ -0,0 +1,99 @@
+package com.tokapuart.service;
+
+import com.tokapuart.model.Artwork;
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
+import com.tokapuart.model.User;
+import com.tokapuart.support.ConcurrencyTestSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static com.tokapuart.support.ConcurrencyTestSupport.runInParallel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rendimiento de los contadores de una obra muy activa con y sin fragmentos, con escritores
+ * que mantienen abierta su transacción un momento después del incremento, como una petición
+ * real. Queda fuera de la suite por defecto; se ejecuta con mvn test -Pbenchmark. En H2 la
+ * cifra solo es orientativa: la que cuenta es la de MySQL, apuntando
+ * spring.datasource.url a una base de datos de pruebas.
+ */
+@SpringBootTest
+@ActiveProfiles({"dev", "test"})
+@Tag("benchmark")
+@Slf4j
+class ArtworkCounterServiceBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 100;
+    private static final long WORK_AFTER_INCREMENT_MS = 2;
+
+    @Autowired
+    private ArtworkCounterService artworkCounterService;
+
+    @Autowired
+    private ConcurrencyTestSupport support;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void restoreDirectCounters() {
+        ReflectionTestUtils.setField(artworkCounterService, "sharded", false);
+    }
+
+    @Test
+    void hotArtworkThroughputDirectVsSharded() throws Exception {
+        User owner = support.newUser();
+        long total = (long) THREADS * INCREMENTS_PER_THREAD;
+
+        Artwork direct = support.newArtwork(owner);
+        double directRate = incrementsPerSecond(direct.getId());
+        assertThat(likesColumn(direct.getId())).isEqualTo(total);
+
+        ReflectionTestUtils.setField(artworkCounterService, "sharded", true);
+        Artwork hot = support.newArtwork(owner);
+        double shardedRate = incrementsPerSecond(hot.getId());
+        artworkCounterService.compact();
+        assertThat(likesColumn(hot.getId())).isEqualTo(total);
+
+        log.info("Obra con {} escritores: {} incrementos/s sobre la fila, {} incrementos/s con fragmentos",
+                THREADS, Math.round(directRate), Math.round(shardedRate));
+    }
+
+    private double incrementsPerSecond(Long artworkId) throws Exception {
+        long start = System.nanoTime();
+        runInParallel(THREADS, thread -> {
+            for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    artworkCounterService.increment(artworkId, CounterType.LIKES, 1);
+                    sleep(WORK_AFTER_INCREMENT_MS);
+                });
+            }
+        });
+        return THREADS * INCREMENTS_PER_THREAD / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private long likesColumn(Long artworkId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(likes_count, 0) FROM artworks WHERE id = ?", Long.class, artworkId);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
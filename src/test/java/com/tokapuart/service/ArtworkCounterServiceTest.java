@@ -0,0 +1,88 @@
+package com.tokapuart.service;
+
+import com.tokapuart.model.Artwork;
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
+import com.tokapuart.support.ConcurrencyTestSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.tokapuart.support.ConcurrencyTestSupport.runInParallel;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exactitud de los contadores fragmentados de una obra muy activa: la compactación en
+ * paralelo con los incrementos no pierde ninguno. La medida de rendimiento está en
+ * ArtworkCounterServiceBenchmarkTest, fuera de la suite por defecto.
+ */
+@SpringBootTest
+@ActiveProfiles({"dev", "test"})
+class ArtworkCounterServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int INCREMENTS_PER_THREAD = 100;
+
+    @Autowired
+    private ArtworkCounterService artworkCounterService;
+
+    @Autowired
+    private ConcurrencyTestSupport support;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void restoreDirectCounters() {
+        ReflectionTestUtils.setField(artworkCounterService, "sharded", false);
+    }
+
+    @Test
+    void compactionKeepsConcurrentIncrements() throws Exception {
+        ReflectionTestUtils.setField(artworkCounterService, "sharded", true);
+        Artwork artwork = support.newArtwork(support.newUser());
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService compactor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> compactions = compactor.submit(() -> {
+                while (writing.get()) {
+                    artworkCounterService.compact();
+                }
+            });
+            runInParallel(THREADS, thread -> {
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                    transactionTemplate.executeWithoutResult(status ->
+                            artworkCounterService.increment(artwork.getId(), CounterType.LIKES, 1));
+                }
+            });
+            writing.set(false);
+            compactions.get(60, TimeUnit.SECONDS);
+        } finally {
+            compactor.shutdownNow();
+        }
+        artworkCounterService.compact();
+
+        assertThat(likesColumn(artwork.getId())).isEqualTo((long) THREADS * INCREMENTS_PER_THREAD);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM artwork_counter_shards WHERE artwork_id = ? AND delta <> 0",
+                Long.class, artwork.getId())).isZero();
+    }
+
+    private long likesColumn(Long artworkId) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(likes_count, 0) FROM artworks WHERE id = ?", Long.class, artworkId);
+    }
+}
@@ -0,0 +1,103 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.FavoriteStateResponse;
+import com.tokapuart.model.Artwork;
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
+import com.tokapuart.model.User;
+import com.tokapuart.support.ConcurrencyTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tokapuart.support.ConcurrencyTestSupport.runInParallel;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * PUT y DELETE idempotentes de favoritos en paralelo: pulsaciones repetidas del mismo
+ * usuario cambian el estado una sola vez y el contador de la obra coincide con las filas.
+ */
+@SpringBootTest
+@ActiveProfiles({"dev", "test"})
+class FavoriteServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private FavoriteService favoriteService;
+
+    @Autowired
+    private ArtworkCounterService artworkCounterService;
+
+    @Autowired
+    private ConcurrencyTestSupport support;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelSetFavoriteDoubleTapChangesOnce() throws Exception {
+        User user = support.newUser();
+        Artwork artwork = support.newArtwork(user);
+
+        AtomicInteger changed = new AtomicInteger();
+        runInParallel(THREADS, thread -> {
+            FavoriteStateResponse state = favoriteService.setFavorite(artwork.getId(), user.getId(), true);
+            if (state.getChanged()) {
+                changed.incrementAndGet();
+            }
+            assertThat(state.getFavoritesCount()).isEqualTo(1);
+        });
+        assertThat(changed.get()).isEqualTo(1);
+
+        changed.set(0);
+        runInParallel(THREADS, thread -> {
+            FavoriteStateResponse state = favoriteService.setFavorite(artwork.getId(), user.getId(), false);
+            if (state.getChanged()) {
+                changed.incrementAndGet();
+            }
+            assertThat(state.getFavoritesCount()).isZero();
+        });
+        assertThat(changed.get()).isEqualTo(1);
+        assertCounterMatchesRows(artwork.getId());
+    }
+
+    @Test
+    void manyUsersParallelFavoritesKeepCounterConsistent() throws Exception {
+        Artwork artwork = support.newArtwork(support.newUser());
+        List<User> users = support.newUsers(THREADS);
+
+        runInParallel(THREADS, thread -> {
+            for (int i = 0; i < 20; i++) {
+                favoriteService.setFavorite(artwork.getId(), users.get(thread).getId(), i % 2 == 0);
+            }
+            favoriteService.setFavorite(artwork.getId(), users.get(thread).getId(), true);
+        });
+
+        assertThat(favoriteRows(artwork.getId())).isEqualTo(users.size());
+        assertCounterMatchesRows(artwork.getId());
+    }
+
+    @Test
+    void removeFavoriteFromMissingArtworkIsNotFound() {
+        User user = support.newUser();
+        Long missingId = support.newArtwork(user).getId() + 1000;
+
+        assertThatThrownBy(() -> favoriteService.setFavorite(missingId, user.getId(), false))
+                .hasMessage("Obra no encontrada");
+    }
+
+    private void assertCounterMatchesRows(Long artworkId) {
+        assertThat(artworkCounterService.currentCounts(artworkId)[CounterType.FAVORITES.ordinal()])
+                .isEqualTo(favoriteRows(artworkId));
+    }
+
+    private long favoriteRows(Long artworkId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM favorites WHERE artwork_id = ?", Long.class, artworkId);
+    }
+}
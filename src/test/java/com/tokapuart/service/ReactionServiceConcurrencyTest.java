@@ -0,0 +1,159 @@
+package com.tokapuart.service;
+
+import com.tokapuart.dto.ReactionStateResponse;
+import com.tokapuart.model.Artwork;
+import com.tokapuart.model.ArtworkCounterShard.CounterType;
+import com.tokapuart.model.ArtworkReaction;
+import com.tokapuart.model.User;
+import com.tokapuart.support.ConcurrencyTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tokapuart.support.ConcurrencyTestSupport.runInParallel;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reacciones concurrentes sobre la misma obra: al terminar, los contadores de la obra
+ * deben coincidir con las filas de artwork_reactions y cada usuario tener como mucho una.
+ * Incluye el PUT idempotente (setReaction) pulsado varias veces a la vez.
+ * Miles de operaciones por prueba, repartidas entre muchos usuarios o concentradas en uno.
+ * H2 no reproduce todos los interbloqueos de InnoDB; la prueba comprueba que las escrituras
+ * condicionadas de ReactionService no pierden ni duplican incrementos.
+ */
+@SpringBootTest
+@ActiveProfiles({"dev", "test"})
+class ReactionServiceConcurrencyTest {
+
+    private static final ArtworkReaction.ReactionType[] TYPES = ArtworkReaction.ReactionType.values();
+    private static final int THREADS = 16;
+    private static final int USERS = 64;
+    private static final int ROUNDS = 250;
+
+    @Autowired
+    private ReactionService reactionService;
+
+    @Autowired
+    private ArtworkCounterService artworkCounterService;
+
+    @Autowired
+    private ConcurrencyTestSupport support;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sameUserParallelReactionsKeepCountersConsistent() throws Exception {
+        User user = support.newUser();
+        Artwork artwork = support.newArtwork(user);
+
+        runInParallel(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < ROUNDS; i++) {
+                if (random.nextInt(4) == 0) {
+                    reactionService.removeReaction(artwork.getId(), user.getId());
+                } else {
+                    reactionService.addOrUpdateReaction(artwork.getId(), user.getId(), TYPES[random.nextInt(TYPES.length)]);
+                }
+            }
+        });
+
+        assertThat(reactionRows(artwork.getId())).isLessThanOrEqualTo(1);
+        assertCountersMatchRows(artwork.getId());
+    }
+
+    @Test
+    void manyUsersParallelReactionsKeepCountersConsistent() throws Exception {
+        Artwork artwork = support.newArtwork(support.newUser());
+        List<User> users = support.newUsers(USERS);
+
+        // Cada operación va a un usuario al azar, así un mismo usuario recibe peticiones de varios hilos a la vez
+        runInParallel(THREADS, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < ROUNDS; i++) {
+                User user = users.get(random.nextInt(users.size()));
+                if (random.nextInt(4) == 0) {
+                    reactionService.removeReaction(artwork.getId(), user.getId());
+                } else {
+                    reactionService.addOrUpdateReaction(artwork.getId(), user.getId(), TYPES[random.nextInt(TYPES.length)]);
+                }
+            }
+        });
+        // Al final todos reaccionan, también a la vez, para conocer el número exacto de filas
+        runInParallel(THREADS, thread -> {
+            for (int i = thread; i < users.size(); i += THREADS) {
+                reactionService.addOrUpdateReaction(artwork.getId(), users.get(i).getId(), ArtworkReaction.ReactionType.LOVE);
+            }
+        });
+
+        assertThat(reactionRows(artwork.getId())).isEqualTo(users.size());
+        assertCountersMatchRows(artwork.getId());
+    }
+
+    @Test
+    void parallelSetReactionDoubleTapChangesOnce() throws Exception {
+        User user = support.newUser();
+        Artwork artwork = support.newArtwork(user);
+
+        // Varias pulsaciones del mismo PUT a la vez: solo una cambia algo y todas ven el contador en 1
+        AtomicInteger changed = new AtomicInteger();
+        runInParallel(THREADS, thread -> {
+            ReactionStateResponse state = reactionService.setReaction(artwork.getId(), user.getId(), ArtworkReaction.ReactionType.CLAP);
+            if (state.getChanged()) {
+                changed.incrementAndGet();
+            }
+            assertThat(state.getClapsCount()).isEqualTo(1);
+        });
+        assertThat(changed.get()).isEqualTo(1);
+
+        // Y lo mismo al quitarla
+        changed.set(0);
+        runInParallel(THREADS, thread -> {
+            ReactionStateResponse state = reactionService.setReaction(artwork.getId(), user.getId(), null);
+            if (state.getChanged()) {
+                changed.incrementAndGet();
+            }
+            assertThat(state.getClapsCount()).isZero();
+        });
+        assertThat(changed.get()).isEqualTo(1);
+        assertThat(reactionRows(artwork.getId())).isZero();
+        assertCountersMatchRows(artwork.getId());
+    }
+
+    @Test
+    void removeReactionFromMissingArtworkIsNotFound() {
+        User user = support.newUser();
+        Long missingId = support.newArtwork(user).getId() + 1000;
+
+        assertThatThrownBy(() -> reactionService.setReaction(missingId, user.getId(), null))
+                .hasMessage("Obra no encontrada");
+    }
+
+    private void assertCountersMatchRows(Long artworkId) {
+        long[] expected = new long[CounterType.values().length];
+        jdbcTemplate.query(
+                "SELECT reaction_type, COUNT(*) FROM artwork_reactions WHERE artwork_id = ? GROUP BY reaction_type",
+                rs -> {
+                    CounterType type = CounterType.of(ArtworkReaction.ReactionType.valueOf(rs.getString(1)));
+                    expected[type.ordinal()] = rs.getLong(2);
+                },
+                artworkId);
+
+        long[] counts = artworkCounterService.currentCounts(artworkId);
+        for (ArtworkReaction.ReactionType reactionType : TYPES) {
+            CounterType type = CounterType.of(reactionType);
+            assertThat(counts[type.ordinal()]).as(type.name()).isEqualTo(expected[type.ordinal()]);
+        }
+    }
+
+    private long reactionRows(Long artworkId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM artwork_reactions WHERE artwork_id = ?", Long.class, artworkId);
+    }
+}
@@ -0,0 +1,65 @@
+package com.tokapuart.service;
+
+import com.tokapuart.event.UserProfileChangedEvent;
+import com.tokapuart.model.User;
+import com.tokapuart.support.ConcurrencyTestSupport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Una carga hecha con la instantánea de una transacción anterior a un cambio de perfil no
+ * queda en la caché: la siguiente lectura ve el cambio.
+ */
+@SpringBootTest
+@ActiveProfiles({"dev", "test"})
+class UserSummaryCacheTest {
+
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
+    @Autowired
+    private ConcurrencyTestSupport support;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void loadFromSnapshotOlderThanProfileChangeIsNotCached() {
+        User user = support.newUser();
+        TransactionTemplate repeatableRead = new TransactionTemplate(transactionManager);
+        repeatableRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        repeatableRead.setReadOnly(true);
+
+        repeatableRead.executeWithoutResult(status -> {
+            // Fija la instantánea antes del cambio
+            jdbcTemplate.queryForObject("SELECT full_name FROM users WHERE id = ?", String.class, user.getId());
+
+            // Otra petición cambia el perfil y confirma
+            CompletableFuture.runAsync(() -> {
+                jdbcTemplate.update("UPDATE users SET full_name = ? WHERE id = ?", "Nombre nuevo", user.getId());
+                eventPublisher.publishEvent(new UserProfileChangedEvent(user.getId()));
+            }).join();
+
+            userSummaryCache.get(user.getId());
+        });
+
+        assertThat(userSummaryCache.get(user.getId()).fullName()).isEqualTo("Nombre nuevo");
+    }
+}
@@ -0,0 +1,90 @@
+package com.tokapuart.support;
+
+import com.tokapuart.model.Artwork;
+import com.tokapuart.model.User;
+import com.tokapuart.repository.ArtworkRepository;
+import com.tokapuart.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Datos y arranque simultáneo de hilos para las pruebas de concurrencia de los servicios.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyTestSupport {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final UserRepository userRepository;
+    private final ArtworkRepository artworkRepository;
+
+    public User newUser() {
+        int n = SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setUsername("tester" + n);
+        user.setEmail("tester" + n + "@test.com");
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+
+    public List<User> newUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(newUser());
+        }
+        return users;
+    }
+
+    public Artwork newArtwork(User owner) {
+        Artwork artwork = new Artwork();
+        artwork.setUser(owner);
+        artwork.setTitle("Obra de prueba " + SEQUENCE.incrementAndGet());
+        artwork.setDescription("Obra para las pruebas de concurrencia");
+        artwork.setArtworkType(Artwork.ArtworkType.MURAL);
+        artwork.setLatitude(new BigDecimal("-12.04"));
+        artwork.setLongitude(new BigDecimal("-77.03"));
+        artwork.setStatus(Artwork.ArtworkStatus.APPROVED);
+        return artworkRepository.save(artwork);
+    }
+
+    /**
+     * Ejecuta la tarea en threads hilos que arrancan a la vez y propaga el primer fallo.
+     */
+    public static void runInParallel(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(120, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}